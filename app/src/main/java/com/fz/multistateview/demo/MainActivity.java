@@ -3,16 +3,53 @@ package com.fz.multistateview.demo;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.os.Bundle;
+import android.view.View;
 
 import com.fz.multistateview.MultiStateView;
 
 public class MainActivity extends AppCompatActivity {
+    /**
+     * 模拟请求耗时
+     */
+    private static final long REQUEST_DURATION = 500L;
+    private MultiStateView multiStateView;
+    private final Runnable requestFinished = new Runnable() {
+        @Override
+        public void run() {
+            multiStateView.showContentView();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
-        MultiStateView multiStateView = findViewById(R.id.multi_state_view);
+        multiStateView = findViewById(R.id.multi_state_view);
+        multiStateView.setInflateOnFindView(false);
+        multiStateView.setClickListener(R.id.btn_retry, new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                loadData();
+            }
+        });
+        findViewById(R.id.btn_show_error).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                multiStateView.showErrorView();
+            }
+        });
+        loadData();
+    }
+
+    private void loadData() {
         multiStateView.showLoadingView();
+        multiStateView.removeCallbacks(requestFinished);
+        multiStateView.postDelayed(requestFinished, REQUEST_DURATION);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        multiStateView.removeCallbacks(requestFinished);
     }
 }
@@ -0,0 +1,71 @@
+package com.fz.multistateview.benchmark;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 加载中 → 内容一次循环（含measure/layout）的耗时，对比隐藏内容视图时使用GONE与INVISIBLE
+ */
+@RunWith(Parameterized.class)
+public class ContentHideModeBenchmark {
+    private static final int ROW_COUNT = 30;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter
+    public int contentHideMode;
+
+    @Parameterized.Parameters(name = "contentHideMode={0}")
+    public static List<Integer> parameters() {
+        return Arrays.asList(MultiStateView.CONTENT_HIDE_GONE, MultiStateView.CONTENT_HIDE_INVISIBLE);
+    }
+
+    @Test
+    public void loadingContentCycle() {
+        Context context = MultiStateViews.context();
+        LinearLayout content = new LinearLayout(context);
+        content.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            TextView row = new TextView(context);
+            row.setText("Row " + i);
+            content.addView(row);
+        }
+        MultiStateView multiStateView = new MultiStateView(context, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setContentHideMode(contentHideMode);
+        multiStateView.getLoadingView();
+        measureAndLayout(multiStateView);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.showLoadingView();
+            measureAndLayout(multiStateView);
+            multiStateView.showContentView();
+            measureAndLayout(multiStateView);
+        }
+    }
+
+    private static void measureAndLayout(MultiStateView multiStateView) {
+        if (multiStateView.isLayoutRequested()) {
+            multiStateView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            multiStateView.layout(0, 0, WIDTH, HEIGHT);
+        }
+    }
+}
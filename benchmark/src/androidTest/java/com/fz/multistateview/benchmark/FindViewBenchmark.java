@@ -0,0 +1,50 @@
+package com.fz.multistateview.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * 通过{@link MultiStateView#findViewById(int)}查找视图的耗时
+ */
+@RunWith(AndroidJUnit4.class)
+public class FindViewBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void findViewById_hit() {
+        MultiStateView multiStateView = MultiStateViews.createInflated();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.findViewById(android.R.id.text2);
+        }
+    }
+
+    @Test
+    public void findViewById_miss_inflateOnFindView() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            MultiStateView multiStateView = MultiStateViews.create();
+            state.resumeTiming();
+            multiStateView.findViewById(android.R.id.button1);
+        }
+    }
+
+    @Test
+    public void findViewById_miss_existingViewsOnly() {
+        MultiStateView multiStateView = MultiStateViews.create();
+        multiStateView.setInflateOnFindView(false);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.findViewById(android.R.id.button1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.fz.multistateview.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 首次获取状态视图时inflate的耗时
+ */
+@RunWith(Parameterized.class)
+public class InflationBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter
+    public int viewState;
+
+    @Parameterized.Parameters(name = "state={0}")
+    public static List<Integer> parameters() {
+        return Arrays.asList(MultiStateView.VIEW_STATE_ERROR,
+                MultiStateView.VIEW_STATE_EMPTY,
+                MultiStateView.VIEW_STATE_LOADING,
+                MultiStateView.VIEW_STATE_NO_NETWORK,
+                MultiStateView.VIEW_STATE_PROCESS);
+    }
+
+    @Test
+    public void ensureStateView_firstInflation() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            MultiStateView multiStateView = MultiStateViews.create();
+            state.resumeTiming();
+            multiStateView.getView(viewState);
+        }
+    }
+}
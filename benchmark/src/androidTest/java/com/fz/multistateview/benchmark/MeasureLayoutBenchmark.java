@@ -0,0 +1,52 @@
+package com.fz.multistateview.benchmark;
+
+import android.view.View;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link MultiStateView}强制重新测量、布局的耗时
+ */
+@RunWith(AndroidJUnit4.class)
+public class MeasureLayoutBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void measureLayout_content() {
+        benchmarkMeasureLayout(MultiStateView.VIEW_STATE_CONTENT);
+    }
+
+    @Test
+    public void measureLayout_loading() {
+        benchmarkMeasureLayout(MultiStateView.VIEW_STATE_LOADING);
+    }
+
+    @Test
+    public void measureLayout_process() {
+        benchmarkMeasureLayout(MultiStateView.VIEW_STATE_PROCESS);
+    }
+
+    private void benchmarkMeasureLayout(int viewState) {
+        MultiStateView multiStateView = MultiStateViews.createInflated();
+        multiStateView.setViewState(viewState);
+        int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY);
+        int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.AT_MOST);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.forceLayout();
+            multiStateView.measure(widthMeasureSpec, heightMeasureSpec);
+            multiStateView.layout(0, 0, multiStateView.getMeasuredWidth(), multiStateView.getMeasuredHeight());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.fz.multistateview.benchmark;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.fz.multistateview.MultiStateView;
+
+/**
+ * 创建基准测试使用的{@link MultiStateView}
+ */
+final class MultiStateViews {
+    static final int CONTENT_CHILD_COUNT = 20;
+
+    static final int[] STATES = {
+            MultiStateView.VIEW_STATE_CONTENT,
+            MultiStateView.VIEW_STATE_ERROR,
+            MultiStateView.VIEW_STATE_EMPTY,
+            MultiStateView.VIEW_STATE_LOADING,
+            MultiStateView.VIEW_STATE_NO_NETWORK,
+            MultiStateView.VIEW_STATE_PROCESS
+    };
+
+    private MultiStateViews() {
+    }
+
+    static Context context() {
+        return InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+
+    /**
+     * 创建设置了所有状态布局的{@link MultiStateView}，状态布局尚未inflate
+     */
+    static MultiStateView create() {
+        Context context = context();
+        FrameLayout content = new FrameLayout(context);
+        for (int i = 0; i < CONTENT_CHILD_COUNT; i++) {
+            content.addView(new View(context));
+        }
+        MultiStateView multiStateView = new MultiStateView(context, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_2);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setNoNetworkViewResId(android.R.layout.simple_list_item_2);
+        multiStateView.setProcessViewResId(android.R.layout.simple_list_item_1);
+        return multiStateView;
+    }
+
+    /**
+     * 创建所有状态布局都已inflate的{@link MultiStateView}
+     */
+    static MultiStateView createInflated() {
+        MultiStateView multiStateView = create();
+        for (int state : STATES) {
+            multiStateView.getView(state);
+        }
+        return multiStateView;
+    }
+}
@@ -0,0 +1,60 @@
+package com.fz.multistateview.benchmark;
+
+import android.widget.FrameLayout;
+import android.widget.ScrollView;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link MultiStateView#canScrollVertically(int)}的单次耗时：缓存的滑动视图与每次通过findViewById查找对比
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScrollTargetBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void canScrollVertically_findViewById() {
+        MultiStateView multiStateView = createWithScrollView();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.findViewById(android.R.id.list).canScrollVertically(1);
+        }
+    }
+
+    @Test
+    public void canScrollVertically_cached() {
+        MultiStateView multiStateView = createWithScrollView();
+        multiStateView.setScrollViewResId(android.R.id.list);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.canScrollVertically(1);
+        }
+    }
+
+    @Test
+    public void canScrollVertically_missingScrollView() {
+        MultiStateView multiStateView = MultiStateViews.create();
+        multiStateView.setScrollViewResId(android.R.id.list);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.canScrollVertically(1);
+        }
+    }
+
+    private static MultiStateView createWithScrollView() {
+        MultiStateView multiStateView = MultiStateViews.create();
+        ScrollView scrollView = new ScrollView(MultiStateViews.context());
+        scrollView.setId(android.R.id.list);
+        ((FrameLayout) multiStateView.getContentView()).addView(scrollView);
+        return multiStateView;
+    }
+}
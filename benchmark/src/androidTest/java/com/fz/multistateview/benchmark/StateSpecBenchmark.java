@@ -0,0 +1,60 @@
+package com.fz.multistateview.benchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.fz.multistateview.MultiStateView;
+import com.fz.multistateview.StateSpec;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * 首次显示空数据状态并绘制一帧的耗时：inflate布局与直接绘制{@link StateSpec}对比
+ */
+public class StateSpecBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+    private final Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+    @Test
+    public void showEmpty_inflatedLayout() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            MultiStateView multiStateView = MultiStateViews.create();
+            state.resumeTiming();
+            multiStateView.showEmptyView();
+            drawFrame(multiStateView);
+        }
+    }
+
+    @Test
+    public void showEmpty_drawnSpec() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            MultiStateView multiStateView = MultiStateViews.create();
+            multiStateView.setEmptyViewResId(View.NO_ID);
+            StateSpec spec = new StateSpec(android.R.drawable.ic_dialog_info, "暂无数据，请稍后再试");
+            spec.setButtonText("重试");
+            multiStateView.setStateSpec(MultiStateView.VIEW_STATE_EMPTY, spec);
+            state.resumeTiming();
+            multiStateView.showEmptyView();
+            drawFrame(multiStateView);
+        }
+    }
+
+    private void drawFrame(MultiStateView multiStateView) {
+        multiStateView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        multiStateView.layout(0, 0, WIDTH, HEIGHT);
+        multiStateView.draw(canvas);
+    }
+}
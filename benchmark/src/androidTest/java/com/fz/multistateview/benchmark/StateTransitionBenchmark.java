@@ -0,0 +1,51 @@
+package com.fz.multistateview.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 任意两个状态之间来回切换一次的耗时，状态布局均已inflate
+ */
+@RunWith(Parameterized.class)
+public class StateTransitionBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter(0)
+    public int from;
+    @Parameterized.Parameter(1)
+    public int to;
+
+    @Parameterized.Parameters(name = "{0}<->{1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        int[] states = MultiStateViews.STATES;
+        for (int i = 0; i < states.length; i++) {
+            for (int j = i + 1; j < states.length; j++) {
+                parameters.add(new Object[]{states[i], states[j]});
+            }
+        }
+        return parameters;
+    }
+
+    @Test
+    public void setViewState_roundTrip() {
+        MultiStateView multiStateView = MultiStateViews.createInflated();
+        multiStateView.setViewState(from);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            multiStateView.setViewState(to);
+            multiStateView.setViewState(from);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.fz.multistateview.benchmark;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * 一次完整拖动（按下、{@link #MOVE_COUNT}次移动、抬起）在{@link MultiStateView#onTouchEvent(MotionEvent)}中的耗时
+ */
+@RunWith(AndroidJUnit4.class)
+public class TouchBenchmark {
+    private static final int MOVE_COUNT = 100;
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+    private MotionEvent[] events;
+
+    @Before
+    public void setUp() {
+        long downTime = SystemClock.uptimeMillis();
+        events = new MotionEvent[MOVE_COUNT + 2];
+        events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 100, 1000, 0);
+        for (int i = 1; i <= MOVE_COUNT; i++) {
+            events[i] = MotionEvent.obtain(downTime, downTime + i * 8L, MotionEvent.ACTION_MOVE, 100, 1000 - i * 5, 0);
+        }
+        events[MOVE_COUNT + 1] = MotionEvent.obtain(downTime, downTime + (MOVE_COUNT + 1) * 8L, MotionEvent.ACTION_UP, 100, 500, 0);
+    }
+
+    @After
+    public void tearDown() {
+        for (MotionEvent event : events) {
+            event.recycle();
+        }
+    }
+
+    @Test
+    public void onTouchEvent_drag() {
+        MultiStateView multiStateView = MultiStateViews.createInflated();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (MotionEvent event : events) {
+                multiStateView.onTouchEvent(event);
+            }
+        }
+    }
+}
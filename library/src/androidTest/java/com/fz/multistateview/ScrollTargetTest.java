@@ -0,0 +1,76 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ScrollView;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MultiStateView#canScrollVertically(int)}使用缓存的滑动视图，找不到滑动视图时也不会inflate状态布局
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScrollTargetTest {
+    private MultiStateView multiStateView;
+    private ScrollView scrollView;
+    private int inflateCount;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FrameLayout content = new FrameLayout(context);
+        for (int i = 0; i < 20; i++) {
+            content.addView(new View(context));
+        }
+        scrollView = new ScrollView(context);
+        scrollView.setId(android.R.id.list);
+        content.addView(scrollView);
+        multiStateView = new MultiStateView(context, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                inflateCount++;
+            }
+        });
+    }
+
+    @Test
+    public void canScrollVertically_delegatesToScrollView() {
+        multiStateView.setScrollViewResId(android.R.id.list);
+        for (int direction = -1; direction <= 1; direction += 2) {
+            assertEquals(scrollView.canScrollVertically(direction), multiStateView.canScrollVertically(direction));
+        }
+        assertEquals(0, inflateCount);
+    }
+
+    @Test
+    public void missingScrollView_neverInflates() {
+        multiStateView.setScrollViewResId(android.R.id.empty);
+        for (int i = 0; i < 100; i++) {
+            multiStateView.canScrollVertically(1);
+            multiStateView.canScrollHorizontally(1);
+        }
+        assertEquals(0, inflateCount);
+
+        // 对照：通过findViewById查找不存在的视图会inflate所有状态布局
+        multiStateView.findViewById(android.R.id.empty);
+        assertTrue(inflateCount > 0);
+    }
+}
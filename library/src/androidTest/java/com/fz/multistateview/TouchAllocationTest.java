@@ -0,0 +1,103 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 重放模拟拖动事件，统计{@link MultiStateView#onTouchEvent(MotionEvent)}中的对象分配次数
+ */
+@RunWith(AndroidJUnit4.class)
+public class TouchAllocationTest {
+    private static final int MOVE_COUNT = 5000;
+    private Context context;
+    private MotionEvent[] events;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        long downTime = SystemClock.uptimeMillis();
+        events = new MotionEvent[MOVE_COUNT + 2];
+        events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 100, 1000, 0);
+        for (int i = 1; i <= MOVE_COUNT; i++) {
+            events[i] = MotionEvent.obtain(downTime, downTime + i * 8L, MotionEvent.ACTION_MOVE, 100, 1000 - (i % 500), 0);
+        }
+        events[MOVE_COUNT + 1] = MotionEvent.obtain(downTime, downTime + (MOVE_COUNT + 1) * 8L, MotionEvent.ACTION_UP, 100, 500, 0);
+    }
+
+    @After
+    public void tearDown() {
+        for (MotionEvent event : events) {
+            event.recycle();
+        }
+    }
+
+    @Test
+    public void drag_withoutNestedScrollingParent_allocatesNothing() {
+        MultiStateView multiStateView = new MultiStateView(context, new View(context));
+        assertEquals(0, replayDrag(multiStateView));
+    }
+
+    @Test
+    public void drag_withNestedScrollingParent_allocatesNothing() {
+        MultiStateView multiStateView = new MultiStateView(context, new View(context));
+        new ConsumingParent(context).addView(multiStateView);
+        assertEquals(0, replayDrag(multiStateView));
+    }
+
+    @SuppressWarnings("deprecation")
+    private int replayDrag(final MultiStateView multiStateView) {
+        final int[] allocCount = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // 预热，排除首次调用时的延迟初始化
+                dispatchAll(multiStateView);
+                Debug.startAllocCounting();
+                Debug.resetThreadAllocCount();
+                dispatchAll(multiStateView);
+                allocCount[0] = Debug.getThreadAllocCount();
+                Debug.stopAllocCounting();
+            }
+        });
+        return allocCount[0];
+    }
+
+    private void dispatchAll(MultiStateView multiStateView) {
+        for (MotionEvent event : events) {
+            multiStateView.onTouchEvent(event);
+        }
+    }
+
+    /**
+     * 消费一半纵向滑动距离的嵌套滑动父布局
+     */
+    private static class ConsumingParent extends FrameLayout {
+        ConsumingParent(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+            return true;
+        }
+
+        @Override
+        public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+            consumed[1] = dy / 2;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 基于单个可复用{@link ValueAnimator}的切换动画，动画期间视图使用硬件层绘制。
+ * 子类只需根据动画进度设置视图属性，建议使用{@link View#ALPHA}等属性对象
+ */
+public abstract class BaseStateTransition implements StateTransition {
+    private static final TimeInterpolator DEFAULT_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+    private final ValueAnimator mAnimator;
+    @Nullable
+    private View mOutgoing;
+    @Nullable
+    private View mIncoming;
+    @Nullable
+    private Listener mListener;
+    private boolean isOutgoingLayerChanged;
+    private boolean isIncomingLayerChanged;
+
+    protected BaseStateTransition() {
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                onUpdate(mOutgoing, mIncoming, animation.getAnimatedFraction());
+            }
+        });
+        mAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                finish();
+            }
+        });
+    }
+
+    @Override
+    public void start(@Nullable View outgoing, @Nullable View incoming, long duration,
+                      @Nullable TimeInterpolator interpolator, @NonNull Listener listener) {
+        cancel();
+        mOutgoing = outgoing;
+        mIncoming = incoming;
+        mListener = listener;
+        isOutgoingLayerChanged = promoteToHardwareLayer(outgoing);
+        isIncomingLayerChanged = promoteToHardwareLayer(incoming);
+        onPrepare(outgoing, incoming);
+        mAnimator.setDuration(duration);
+        mAnimator.setInterpolator(interpolator != null ? interpolator : DEFAULT_INTERPOLATOR);
+        mAnimator.start();
+    }
+
+    @Override
+    public void cancel() {
+        if (mAnimator.isStarted()) {
+            mAnimator.cancel();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mAnimator.isStarted();
+    }
+
+    /**
+     * 暂停正在执行的动画，暂停期间不再请求绘制新的帧
+     */
+    public void pause() {
+        if (mAnimator.isStarted()) {
+            mAnimator.pause();
+        }
+    }
+
+    /**
+     * 恢复{@link #pause()}暂停的动画
+     */
+    public void resume() {
+        if (mAnimator.isPaused()) {
+            mAnimator.resume();
+        }
+    }
+
+    public boolean isPaused() {
+        return mAnimator.isPaused();
+    }
+
+    private void finish() {
+        View outgoing = mOutgoing;
+        View incoming = mIncoming;
+        Listener listener = mListener;
+        mOutgoing = null;
+        mIncoming = null;
+        mListener = null;
+        onReset(outgoing, incoming);
+        if (isOutgoingLayerChanged && outgoing != null) {
+            outgoing.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+        if (isIncomingLayerChanged && incoming != null) {
+            incoming.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+        if (listener != null) {
+            listener.onTransitionEnd(outgoing, incoming);
+        }
+    }
+
+    private static boolean promoteToHardwareLayer(@Nullable View view) {
+        if (view != null && view.getLayerType() == View.LAYER_TYPE_NONE && view.hasOverlappingRendering()) {
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 动画开始前设置视图的初始属性
+     */
+    protected abstract void onPrepare(@Nullable View outgoing, @Nullable View incoming);
+
+    /**
+     * 根据动画进度设置视图属性
+     *
+     * @param fraction 动画进度，0~1
+     */
+    protected abstract void onUpdate(@Nullable View outgoing, @Nullable View incoming, float fraction);
+
+    /**
+     * 动画结束或被取消后恢复视图属性
+     */
+    protected abstract void onReset(@Nullable View outgoing, @Nullable View incoming);
+}
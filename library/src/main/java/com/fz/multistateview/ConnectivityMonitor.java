@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程内共享的网络连接状态监听，所有订阅者共用一个{@link ConnectivitySource}注册。
+ * 连接状态变化时在下一帧统一通知所有订阅者，同一帧内的多次变化只通知最终状态。
+ * {@link MultiStateView#setAutoNoNetwork(boolean)}开启后自动订阅。
+ * 默认数据源需要应用在AndroidManifest中声明{@code android.permission.ACCESS_NETWORK_STATE}
+ */
+public final class ConnectivityMonitor {
+    private static volatile ConnectivityMonitor sInstance;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Listener> mListeners = new ArrayList<>();
+    private final AtomicBoolean isDispatchScheduled = new AtomicBoolean(false);
+    @NonNull
+    private ConnectivitySource mSource;
+    /**
+     * 数据源最新回调的连接状态，可在任意线程写入
+     */
+    private volatile boolean isSourceConnected = true;
+    /**
+     * 已通知订阅者的连接状态
+     */
+    private boolean isConnected = true;
+    private boolean isSourceStarted = false;
+    private Listener[] mDispatchListeners = new Listener[0];
+
+    /**
+     * 连接状态变化回调，在主线程回调
+     */
+    public interface Listener {
+        void onConnectivityChanged(boolean connected);
+    }
+
+    /**
+     * 网络连接状态数据源，可替换为测试用的实现
+     */
+    public interface ConnectivitySource {
+        /**
+         * 当前是否已连接网络
+         */
+        boolean isConnected();
+
+        /**
+         * 开始监听，连接状态变化时回调，可在任意线程回调
+         */
+        void start(@NonNull Callback callback);
+
+        /**
+         * 停止监听
+         */
+        void stop();
+
+        interface Callback {
+            void onConnectivityChanged(boolean connected);
+        }
+    }
+
+    private final ConnectivitySource.Callback mSourceCallback = new ConnectivitySource.Callback() {
+        @Override
+        public void onConnectivityChanged(boolean connected) {
+            postConnectivityChanged(connected);
+        }
+    };
+
+    private final Choreographer.FrameCallback mDispatchFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            dispatchConnectivityChanged();
+        }
+    };
+
+    private final Runnable mScheduleDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mDispatchFrameCallback);
+        }
+    };
+
+    private ConnectivityMonitor(@NonNull ConnectivitySource source) {
+        mSource = source;
+    }
+
+    @NonNull
+    public static ConnectivityMonitor getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            synchronized (ConnectivityMonitor.class) {
+                if (sInstance == null) {
+                    sInstance = new ConnectivityMonitor(new DefaultConnectivitySource(context.getApplicationContext()));
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 替换网络连接状态数据源，已有订阅者时立即切换监听
+     *
+     * @param source 数据源
+     */
+    @MainThread
+    public void setConnectivitySource(@NonNull ConnectivitySource source) {
+        if (isSourceStarted) {
+            mSource.stop();
+        }
+        mSource = source;
+        if (isSourceStarted) {
+            startSource();
+        }
+    }
+
+    /**
+     * 已通知订阅者的连接状态
+     */
+    @MainThread
+    public boolean isConnected() {
+        return isSourceStarted ? isConnected : mSource.isConnected();
+    }
+
+    /**
+     * 订阅连接状态变化，第一个订阅者订阅时开始监听
+     */
+    @MainThread
+    public void addListener(@NonNull Listener listener) {
+        if (mListeners.contains(listener)) {
+            return;
+        }
+        mListeners.add(listener);
+        if (!isSourceStarted) {
+            isSourceStarted = true;
+            startSource();
+        }
+    }
+
+    /**
+     * 取消订阅，最后一个订阅者取消时停止监听
+     */
+    @MainThread
+    public void removeListener(@NonNull Listener listener) {
+        if (mListeners.remove(listener) && mListeners.isEmpty() && isSourceStarted) {
+            isSourceStarted = false;
+            mSource.stop();
+        }
+    }
+
+    private void startSource() {
+        isConnected = mSource.isConnected();
+        isSourceConnected = isConnected;
+        mSource.start(mSourceCallback);
+    }
+
+    @AnyThread
+    private void postConnectivityChanged(boolean connected) {
+        isSourceConnected = connected;
+        if (isDispatchScheduled.compareAndSet(false, true)) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mScheduleDispatchRunnable.run();
+            } else {
+                mMainHandler.post(mScheduleDispatchRunnable);
+            }
+        }
+    }
+
+    private void dispatchConnectivityChanged() {
+        isDispatchScheduled.set(false);
+        boolean connected = isSourceConnected;
+        if (!isSourceStarted || connected == isConnected) {
+            return;
+        }
+        isConnected = connected;
+        // 回调中可能取消订阅，复制一份再遍历
+        int size = mListeners.size();
+        Listener[] listeners = mListeners.toArray(mDispatchListeners);
+        mDispatchListeners = listeners;
+        for (int i = 0; i < size; i++) {
+            listeners[i].onConnectivityChanged(connected);
+        }
+        Arrays.fill(listeners, null);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 淡入淡出切换动画
+ */
+public class CrossFadeTransition extends BaseStateTransition {
+
+    @Override
+    protected void onPrepare(@Nullable View outgoing, @Nullable View incoming) {
+        if (outgoing != null) View.ALPHA.set(outgoing, 1f);
+        if (incoming != null) View.ALPHA.set(incoming, 0f);
+    }
+
+    @Override
+    protected void onUpdate(@Nullable View outgoing, @Nullable View incoming, float fraction) {
+        if (outgoing != null) View.ALPHA.set(outgoing, 1f - fraction);
+        if (incoming != null) View.ALPHA.set(incoming, fraction);
+    }
+
+    @Override
+    protected void onReset(@Nullable View outgoing, @Nullable View incoming) {
+        if (outgoing != null) View.ALPHA.set(outgoing, 1f);
+        if (incoming != null) View.ALPHA.set(incoming, 1f);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 基于{@link ConnectivityManager}的网络连接状态数据源，需要ACCESS_NETWORK_STATE权限。
+ * 库不声明该权限，使用方需要在应用的AndroidManifest中声明，未声明时始终视为已连接
+ */
+final class DefaultConnectivitySource implements ConnectivityMonitor.ConnectivitySource {
+    private final ConnectivityManager mConnectivityManager;
+    private ConnectivityManager.NetworkCallback mNetworkCallback;
+
+    DefaultConnectivitySource(@NonNull Context context) {
+        mConnectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean isConnected() {
+        if (mConnectivityManager == null) {
+            return true;
+        }
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                Network network = mConnectivityManager.getActiveNetwork();
+                NetworkCapabilities capabilities = network != null ? mConnectivityManager.getNetworkCapabilities(network) : null;
+                return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+            }
+            NetworkInfo info = mConnectivityManager.getActiveNetworkInfo();
+            return info != null && info.isConnected();
+        } catch (SecurityException e) {
+            // 未声明权限时不影响页面状态
+            return true;
+        }
+    }
+
+    @Override
+    public void start(@NonNull final Callback callback) {
+        if (mConnectivityManager == null || mNetworkCallback != null) {
+            return;
+        }
+        mNetworkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                callback.onConnectivityChanged(isConnected());
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                callback.onConnectivityChanged(isConnected());
+            }
+
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                callback.onConnectivityChanged(isConnected());
+            }
+        };
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                mConnectivityManager.registerDefaultNetworkCallback(mNetworkCallback);
+            } else {
+                NetworkRequest request = new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .build();
+                mConnectivityManager.registerNetworkCallback(request, mNetworkCallback);
+            }
+        } catch (RuntimeException e) {
+            mNetworkCallback = null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (mConnectivityManager == null || mNetworkCallback == null) {
+            return;
+        }
+        try {
+            mConnectivityManager.unregisterNetworkCallback(mNetworkCallback);
+        } catch (RuntimeException ignored) {
+        }
+        mNetworkCallback = null;
+    }
+}
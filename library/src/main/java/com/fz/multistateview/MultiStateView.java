@@ -10,35 +10,62 @@
 
 package com.fz.multistateview;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ObjectAnimator;
+import android.animation.TimeInterpolator;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
-import android.text.TextUtils;
+import android.graphics.Canvas;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.text.Spanned;
+import android.text.SpannedString;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.ProgressBar;
+import android.widget.TextView;
 
+import androidx.annotation.AnyThread;
 import androidx.annotation.IdRes;
 import androidx.annotation.IntDef;
 import androidx.annotation.Keep;
 import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
 import androidx.core.view.NestedScrollingChild;
 import androidx.core.view.NestedScrollingChild3;
 import androidx.core.view.NestedScrollingChildHelper;
 import androidx.core.view.NestedScrollingParent3;
 import androidx.core.view.NestedScrollingParentHelper;
+import androidx.core.text.PrecomputedTextCompat;
 import androidx.core.view.ViewCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.tracing.Trace;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 包含6种不同状态的视图：
@@ -50,6 +77,8 @@ import java.lang.annotation.RetentionPolicy;
  * {@link #VIEW_STATE_NO_NETWORK}无网络时，一般可与错误一致，则不必增加，特殊时可单独处理<br>
  * 每个状态都有自己独立的布局，可以通过设置显示/隐藏
  * 相应地{@link ViewState}
+ * 其他状态（如维护中、需要登录）可以通过{@link #registerState(int, int, boolean)}注册，
+ * 切换状态时只修改离开和进入的两个视图<br>
  * 每个MultiStateView <b> <i>必须</ i> </ b>包含内容视图。 内容视图
  * 是通过XML声明从视图标记内部获取的
  *
@@ -60,11 +89,6 @@ import java.lang.annotation.RetentionPolicy;
 public class MultiStateView extends FrameLayout implements NestedScrollingParent3,
         NestedScrollingChild3, NestedScrollingChild {
     public static String TAG = "MultiStateView";
-    private static final String TAG_EMPTY = "empty";
-    private static final String TAG_LOADING = "loading";
-    private static final String TAG_ERROR = "error";
-    private static final String TAG_NO_NETWORK = "noNetwork";
-    private static final String TAG_PROCESS = "process";
 
     public static final int VIEW_STATE_UNKNOWN = -1;
 
@@ -77,40 +101,276 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
     public static final int VIEW_STATE_LOADING = 3;
     public static final int VIEW_STATE_NO_NETWORK = 4;
     public static final int VIEW_STATE_PROCESS = 5;
+    /**
+     * 测量所有可见子视图，与{@link FrameLayout}一致
+     */
+    public static final int MEASURE_ALL_CHILDREN = 0;
+    /**
+     * 只根据当前状态视图确定自身大小，其他可见子视图（如强制显示的内容视图）按最终大小测量，
+     * 且测量条件未变化时复用上次的测量结果
+     */
+    public static final int MEASURE_ACTIVE_STATE = 1;
+    /**
+     * 隐藏内容视图时设置为{@link View#GONE}
+     */
+    public static final int CONTENT_HIDE_GONE = 0;
+    /**
+     * 隐藏内容视图时设置为{@link View#INVISIBLE}，内容视图保留测量、布局结果，
+     * 返回内容状态时不会触发重新测量、布局
+     */
+    public static final int CONTENT_HIDE_INVISIBLE = 1;
+    private static final String TRACE_SET_VIEW = "MultiStateView#setView";
+    private static final String TRACE_INFLATE = "MultiStateView#inflate";
+    private static final int TRANSITION_NONE = 0;
+    private static final int TRANSITION_CROSS_FADE = 1;
+    private static final int TRANSITION_SLIDE = 2;
+    /**
+     * 状态视图通过布局资源id创建，只有这些视图可以归还到缓存池
+     */
+    private static final int FLAG_INFLATED = 1;
+    /**
+     * 状态布局正在后台inflate
+     */
+    private static final int FLAG_ASYNC_INFLATING = 1 << 1;
+    /**
+     * attach后在主线程空闲时预先inflate
+     */
+    private static final int FLAG_PREWARM = 1 << 2;
+    /**
+     * 显示该状态时同时显示内容视图，如{@link #VIEW_STATE_PROCESS}
+     */
+    private static final int FLAG_SHOW_CONTENT = 1 << 3;
+    /**
+     * {@link StateEntry#message}已设置到状态视图中
+     */
+    private static final int FLAG_MESSAGE_APPLIED = 1 << 4;
+    /**
+     * 正在通过{@link ViewStub#inflate()}替换XML中声明的占位
+     */
+    private static final int FLAG_STUB_INFLATING = 1 << 5;
+    /**
+     * {@link StateEntry#payload}已绑定到{@link StateEntry#holder}
+     */
+    private static final int FLAG_PAYLOAD_BOUND = 1 << 6;
+    /**
+     * 没有等待切换的状态
+     */
+    private static final int NO_PENDING_STATE = Integer.MIN_VALUE;
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
     private int mScrollViewResId = NO_ID;
-    private int mLoadingViewResId = NO_ID;
-    private int mEmptyViewResId = NO_ID;
-    private int mErrorViewResId = NO_ID;
-    private int mNoNetworkViewResId = NO_ID;
-    private int mProcessViewResId = NO_ID;
+    /**
+     * 缓存的{@link #mScrollViewResId}对应视图，布局层级变化时失效
+     */
+    @Nullable
+    private View mScrollView;
+    private boolean isScrollViewResolved = false;
+    /**
+     * 除内容视图外的所有状态，按状态类型索引，包括通过{@link #registerState(int, int, boolean)}注册的自定义状态
+     */
+    private final SparseArray<StateEntry> mStates = new SparseArray<>();
     /**
      * 是否在显示其他视图（如：{@link #VIEW_STATE_LOADING}等状态）的同时显示内容视图
      */
     private boolean isForceShowContent = false;
+    @ContentHideMode
+    private int mContentHideMode = CONTENT_HIDE_GONE;
+    /**
+     * {@link #findViewById(int)}未命中已存在的视图时，是否inflate所有状态布局继续查找，默认true
+     */
+    private boolean isInflateOnFindView = true;
+    /**
+     * 通过{@link #setClickListener(int, OnClickListener)}设置的点击事件，在状态布局inflate时绑定
+     */
+    private SparseArray<OnClickListener> mPendingClickListeners;
+    /**
+     * 是否在后台线程inflate状态布局，布局未就绪时先显示占位视图
+     */
+    private boolean isAsyncInflate = false;
+    private AsyncLayoutInflater mAsyncInflater;
+    /**
+     * 状态布局未inflate完成时显示的占位视图
+     */
+    private View mPlaceholderView;
+    @Nullable
+    private StateViewPool mStateViewPool;
+    /**
+     * 离开状态时是否将状态视图归还到{@link #mStateViewPool}
+     */
+    private boolean isRecycleStateViewOnExit = false;
+    /**
+     * 收到{@link ComponentCallbacks2#onTrimMemory(int)}且级别不低于此值时释放隐藏的状态视图，0表示不释放
+     */
+    private int mTrimMemoryLevel = ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+    /**
+     * 离开状态后超过此时间（毫秒）仍未显示则释放状态视图，0表示不释放
+     */
+    private long mStateViewIdleTimeout = 0;
+    private boolean isIdleTrimScheduled = false;
+    private boolean isTrimCallbacksRegistered = false;
+    @Nullable
+    private OnStateViewsTrimmedListener mTrimmedListener;
+    private final Runnable mTrimIdleStateViewsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isIdleTrimScheduled = false;
+            trimIdleStateViews();
+        }
+    };
+    private final ComponentCallbacks2 mTrimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (mTrimMemoryLevel > 0 && level >= mTrimMemoryLevel) {
+                trimStateViews(0);
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            onTrimMemory(TRIM_MEMORY_COMPLETE);
+        }
+    };
+    /**
+     * 延迟显示加载中视图的时间（毫秒），在此时间内切换到其他状态则不显示加载中视图
+     */
+    private long mLoadingShowDelay = 0;
+    /**
+     * 加载中视图显示后的最短显示时间（毫秒）
+     */
+    private long mLoadingMinShowTime = 0;
+    /**
+     * 加载中视图开始显示的时间
+     */
+    private long mLoadingShownTime = 0;
+    /**
+     * 等待切换的状态，受{@link #mLoadingShowDelay}及{@link #mLoadingMinShowTime}影响
+     */
+    private int mPendingViewState = NO_PENDING_STATE;
+    @MeasureStrategy
+    private int mMeasureStrategy = MEASURE_ALL_CHILDREN;
+    /**
+     * 内容视图不是当前状态视图时，上次测量使用的MeasureSpec
+     */
+    private int mContentWidthMeasureSpec = -1;
+    private int mContentHeightMeasureSpec = -1;
+    /**
+     * 通过{@link #postViewState(int)}提交、等待在下一帧切换的状态，可在任意线程写入
+     */
+    private final AtomicInteger mPostedViewState = new AtomicInteger(NO_PENDING_STATE);
+    private final Runnable mApplyPostedViewStateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int state = mPostedViewState.getAndSet(NO_PENDING_STATE);
+            if (state != NO_PENDING_STATE) {
+                setViewState(state);
+            }
+        }
+    };
+    private final Runnable mSchedulePostedViewStateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            ViewCompat.postOnAnimation(MultiStateView.this, mApplyPostedViewStateRunnable);
+        }
+    };
+    private final Runnable mPendingViewStateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int state = mPendingViewState;
+            mPendingViewState = NO_PENDING_STATE;
+            if (state != NO_PENDING_STATE) {
+                applyViewState(state);
+            }
+        }
+    };
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({CONTENT_HIDE_GONE, CONTENT_HIDE_INVISIBLE})
+    public @interface ContentHideMode {
+    }
 
     @Retention(RetentionPolicy.SOURCE)
-    @IntDef({VIEW_STATE_UNKNOWN, VIEW_STATE_CONTENT, VIEW_STATE_ERROR, VIEW_STATE_EMPTY, VIEW_STATE_LOADING, VIEW_STATE_NO_NETWORK, VIEW_STATE_PROCESS})
+    @IntDef({MEASURE_ALL_CHILDREN, MEASURE_ACTIVE_STATE})
+    public @interface MeasureStrategy {
+    }
+
+    /**
+     * 除内置状态外，还可以使用通过{@link #registerState(int, int, boolean)}注册的自定义状态
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef(open = true, value = {VIEW_STATE_UNKNOWN, VIEW_STATE_CONTENT, VIEW_STATE_ERROR, VIEW_STATE_EMPTY, VIEW_STATE_LOADING, VIEW_STATE_NO_NETWORK, VIEW_STATE_PROCESS})
     public @interface ViewState {
     }
 
     private LayoutInflater mInflater;
 
     private View mContentView;
-
-    private View mLoadingView;
-
-    private View mErrorView;
-
-    private View mEmptyView;
-    private View mNoNetworkView;
+    private boolean mAnimateViewChanges = false;
+    private static final long DEFAULT_TRANSITION_DURATION = 250L;
     /**
-     * 正在处理中视图，比如购物车修改数量时请求网络
+     * 状态切换动画，{@link #mAnimateViewChanges}为true时生效
      */
-    private View mProcessView;
-    private boolean mAnimateViewChanges = false;
+    @Nullable
+    private StateTransition mTransition;
+    private long mTransitionDuration = DEFAULT_TRANSITION_DURATION;
+    @Nullable
+    private TimeInterpolator mTransitionInterpolator;
 
     @Nullable
     private StateListener mListener;
+    /**
+     * 通过{@link #addStateListener(StateListener)}添加的监听
+     */
+    @Nullable
+    private ArrayList<StateListener> mStateListeners;
+    @Nullable
+    private StateSpecRenderer mSpecRenderer;
+    /**
+     * 设置了{@link OnTransitionMetricsListener}时才创建
+     */
+    @Nullable
+    private TransitionTracker mTransitionTracker;
+    @Nullable
+    private Lifecycle mLifecycle;
+    private boolean isLifecycleStarted = true;
+    private boolean isVisibilityAggregated = true;
+    /**
+     * 生命周期停止或自身不可见时，暂停状态视图中的动画
+     */
+    private boolean isAnimationsPaused = false;
+    /**
+     * 暂停时停止的动画，恢复时重新开始
+     */
+    private final ArrayList<Animatable> mPausedAnimatables = new ArrayList<>();
+    private final LifecycleEventObserver mLifecycleObserver = new LifecycleEventObserver() {
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                setLifecycleOwner(null);
+                return;
+            }
+            isLifecycleStarted = source.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+            updateAnimationsPaused();
+        }
+    };
+    /**
+     * 是否根据网络连接状态自动切换到{@link #VIEW_STATE_NO_NETWORK}
+     */
+    private boolean isAutoNoNetwork = false;
+    @Nullable
+    private ConnectivityMonitor mConnectivityMonitor;
+    /**
+     * 断网自动切换到{@link #VIEW_STATE_NO_NETWORK}之前的状态，网络恢复后还原
+     */
+    private int mStateBeforeNoNetwork = NO_PENDING_STATE;
+    private final ConnectivityMonitor.Listener mConnectivityListener = new ConnectivityMonitor.Listener() {
+        @Override
+        public void onConnectivityChanged(boolean connected) {
+            applyConnectivity(connected);
+        }
+    };
 
     @ViewState
     private int mViewState = VIEW_STATE_UNKNOWN;
@@ -150,15 +410,30 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
         if (attrs != null) {
             TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.MultiStateView);
             mScrollViewResId = a.getResourceId(R.styleable.MultiStateView_msv_scrollViewId, NO_ID);
-            mLoadingViewResId = a.getResourceId(R.styleable.MultiStateView_msv_loadingView, NO_ID);
-
-            mEmptyViewResId = a.getResourceId(R.styleable.MultiStateView_msv_emptyView, NO_ID);
+            setLoadingViewResId(a.getResourceId(R.styleable.MultiStateView_msv_loadingView, NO_ID));
+            setEmptyViewResId(a.getResourceId(R.styleable.MultiStateView_msv_emptyView, NO_ID));
             isForceShowContent = a.getBoolean(R.styleable.MultiStateView_msv_forceShowContent, false);
-            mErrorViewResId = a.getResourceId(R.styleable.MultiStateView_msv_errorView, NO_ID);
-            mNoNetworkViewResId = a.getResourceId(R.styleable.MultiStateView_msv_noNetworkView, NO_ID);
-            mProcessViewResId = a.getResourceId(R.styleable.MultiStateView_msv_processView, NO_ID);
+            mContentHideMode = a.getInt(R.styleable.MultiStateView_msv_contentHideMode, CONTENT_HIDE_GONE);
+            setErrorViewResId(a.getResourceId(R.styleable.MultiStateView_msv_errorView, NO_ID));
+            setNoNetworkViewResId(a.getResourceId(R.styleable.MultiStateView_msv_noNetworkView, NO_ID));
+            setProcessViewResId(a.getResourceId(R.styleable.MultiStateView_msv_processView, NO_ID));
             int viewState = a.getInt(R.styleable.MultiStateView_msv_viewState, VIEW_STATE_CONTENT);
             mAnimateViewChanges = a.getBoolean(R.styleable.MultiStateView_msv_animateViewChanges, false);
+            int transition = a.getInt(R.styleable.MultiStateView_msv_transition, mAnimateViewChanges ? TRANSITION_CROSS_FADE : TRANSITION_NONE);
+            setStateTransition(createTransition(transition));
+            mTransitionDuration = a.getInt(R.styleable.MultiStateView_msv_transitionDuration, (int) DEFAULT_TRANSITION_DURATION);
+            mMeasureStrategy = a.getInt(R.styleable.MultiStateView_msv_measureStrategy, MEASURE_ALL_CHILDREN);
+            isInflateOnFindView = a.getBoolean(R.styleable.MultiStateView_msv_inflateOnFindView, true);
+            isAsyncInflate = a.getBoolean(R.styleable.MultiStateView_msv_asyncInflate, false);
+            int prewarmStates = a.getInt(R.styleable.MultiStateView_msv_prewarmStates, 0);
+            for (int state = VIEW_STATE_ERROR; state <= VIEW_STATE_PROCESS; state++) {
+                if ((prewarmStates & (1 << state)) != 0) {
+                    obtainStateEntry(state).flags |= FLAG_PREWARM;
+                }
+            }
+            mLoadingShowDelay = a.getInt(R.styleable.MultiStateView_msv_loadingShowDelay, 0);
+            mLoadingMinShowTime = a.getInt(R.styleable.MultiStateView_msv_loadingMinShowTime, 0);
+            isAutoNoNetwork = a.getBoolean(R.styleable.MultiStateView_msv_autoNoNetwork, false);
             switch (viewState) {
                 case VIEW_STATE_CONTENT:
                     mViewState = VIEW_STATE_CONTENT;
@@ -192,6 +467,52 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
         super.onAttachedToWindow();
         if (mContentView == null) throw new IllegalArgumentException("Content view is not defined");
         setView(VIEW_STATE_UNKNOWN);
+        for (int i = 0, size = mStates.size(); i < size; i++) {
+            if ((mStates.valueAt(i).flags & FLAG_PREWARM) != 0) {
+                Looper.myQueue().addIdleHandler(mPrewarmIdleHandler);
+                break;
+            }
+        }
+        registerTrimMemoryCallbacks();
+        scheduleIdleTrim(mStateViewIdleTimeout);
+        if (isAutoNoNetwork) subscribeConnectivity();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mTransitionTracker != null) mTransitionTracker.cancel();
+        Looper.myQueue().removeIdleHandler(mPrewarmIdleHandler);
+        unregisterTrimMemoryCallbacks();
+        unsubscribeConnectivity();
+        removeCallbacks(mTrimIdleStateViewsRunnable);
+        isIdleTrimScheduled = false;
+        if (mStateViewPool != null) {
+            // 先结束切换动画，由动画恢复视图属性后再归还
+            if (mTransition != null) mTransition.cancel();
+            for (int i = mStates.size() - 1; i >= 0; i--) {
+                recycleStateView(mStates.valueAt(i));
+            }
+        }
+    }
+
+    private final MessageQueue.IdleHandler mPrewarmIdleHandler = new PrewarmIdleHandler();
+
+    /**
+     * 主线程空闲时后台inflate{@link #setPrewarmStates(int...)}指定的状态视图。
+     * 使用包内可见的具名内部类，baseline-prof.txt中的规则不受匿名类编号及合成构造方法影响
+     */
+    final class PrewarmIdleHandler implements MessageQueue.IdleHandler {
+        @Override
+        public boolean queueIdle() {
+            for (int i = 0; i < mStates.size(); i++) {
+                StateEntry entry = mStates.valueAt(i);
+                if ((entry.flags & FLAG_PREWARM) != 0) {
+                    inflateStateViewAsync(entry);
+                }
+            }
+            return false;
+        }
     }
 
     /**
@@ -222,23 +543,268 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
     }
 
     public void setLoadingViewResId(int loadingViewResId) {
-        this.mLoadingViewResId = loadingViewResId;
+        setStateViewResId(VIEW_STATE_LOADING, loadingViewResId);
     }
 
     public void setEmptyViewResId(int emptyViewResId) {
-        this.mEmptyViewResId = emptyViewResId;
+        setStateViewResId(VIEW_STATE_EMPTY, emptyViewResId);
     }
 
     public void setErrorViewResId(int errorViewResId) {
-        this.mErrorViewResId = errorViewResId;
+        setStateViewResId(VIEW_STATE_ERROR, errorViewResId);
     }
 
     public void setNoNetworkViewResId(int noNetworkViewResId) {
-        this.mNoNetworkViewResId = noNetworkViewResId;
+        setStateViewResId(VIEW_STATE_NO_NETWORK, noNetworkViewResId);
     }
 
     public void setProcessViewResId(int processViewResId) {
-        this.mProcessViewResId = processViewResId;
+        setStateViewResId(VIEW_STATE_PROCESS, processViewResId);
+    }
+
+    private void setStateViewResId(@ViewState int state, @LayoutRes int layoutResId) {
+        StateEntry entry = mStates.get(state);
+        if (entry == null && layoutResId == NO_ID) {
+            return;
+        }
+        (entry != null ? entry : obtainStateEntry(state)).layoutResId = layoutResId;
+    }
+
+    /**
+     * 注册自定义状态（如维护中、需要登录等），之后可以通过{@link #setViewState(int)}切换到该状态。
+     * 布局在首次切换到该状态时inflate；也可用于重新设置内置状态的布局
+     *
+     * @param state       状态类型，必须大于{@link #VIEW_STATE_CONTENT}，建议从{@link #VIEW_STATE_PROCESS}之后开始
+     * @param layoutResId 布局资源id
+     * @param showContent 显示该状态时是否同时显示内容视图
+     */
+    public void registerState(@ViewState int state, @LayoutRes int layoutResId, boolean showContent) {
+        StateEntry entry = obtainStateEntry(state);
+        entry.layoutResId = layoutResId;
+        entry.setFlag(FLAG_SHOW_CONTENT, showContent);
+    }
+
+    /**
+     * 注册自定义状态，显示该状态时隐藏内容视图
+     *
+     * @param state       状态类型，必须大于{@link #VIEW_STATE_CONTENT}
+     * @param layoutResId 布局资源id
+     * @see #registerState(int, int, boolean)
+     */
+    public void registerState(@ViewState int state, @LayoutRes int layoutResId) {
+        registerState(state, layoutResId, false);
+    }
+
+    /**
+     * 使用已创建的视图注册自定义状态
+     *
+     * @param state       状态类型，必须大于{@link #VIEW_STATE_CONTENT}
+     * @param view        状态视图
+     * @param showContent 显示该状态时是否同时显示内容视图
+     */
+    public void registerState(@ViewState int state, @NonNull View view, boolean showContent) {
+        obtainStateEntry(state).setFlag(FLAG_SHOW_CONTENT, showContent);
+        setViewForState(view, state);
+    }
+
+    /**
+     * 注册由{@link MultiStateView}直接绘制的自定义状态，不会inflate任何布局
+     *
+     * @param state       状态类型，必须大于{@link #VIEW_STATE_CONTENT}
+     * @param spec        状态的图标、文字及按钮
+     * @param showContent 显示该状态时是否同时显示内容视图
+     */
+    public void registerState(@ViewState int state, @NonNull StateSpec spec, boolean showContent) {
+        obtainStateEntry(state).setFlag(FLAG_SHOW_CONTENT, showContent);
+        setStateSpec(state, spec);
+    }
+
+    /**
+     * 设置状态的绘制内容，状态没有设置布局和视图时直接绘制图标、文字及按钮，不创建子视图。
+     * 常见的空数据、错误页面使用此方式可以避免inflate，如：
+     * {@code setStateSpec(VIEW_STATE_EMPTY, new StateSpec(R.drawable.ic_empty, "暂无数据"))}
+     *
+     * @param state 状态类型，必须大于{@link #VIEW_STATE_CONTENT}
+     * @param spec  状态的图标、文字及按钮，null表示不绘制
+     */
+    public void setStateSpec(@ViewState int state, @Nullable StateSpec spec) {
+        StateEntry entry = obtainStateEntry(state);
+        entry.spec = spec;
+        if (mViewState == state && mSpecRenderer != null && mSpecRenderer.getSpec() != null) {
+            // 正在绘制该状态，刷新绘制内容
+            mSpecRenderer.setSpec(spec);
+            invalidate();
+        }
+    }
+
+    /**
+     * 设置状态视图的数据绑定，状态视图创建后调用一次{@link StateBinder#onCreateViewHolder(View)}，
+     * 之后每次显示该状态时绑定{@link #setViewState(int, Object)}传入的数据
+     *
+     * @param state  状态类型，必须大于{@link #VIEW_STATE_CONTENT}
+     * @param binder 数据绑定，null表示移除
+     */
+    public <VH> void setStateBinder(@ViewState int state, @Nullable StateBinder<VH> binder) {
+        StateEntry entry = obtainStateEntry(state);
+        entry.binder = binder;
+        createViewHolder(entry);
+        if (mViewState == state) {
+            bindStatePayload(entry);
+        }
+    }
+
+    /**
+     * 切换到指定状态并将数据绑定到该状态的{@link StateBinder}。
+     * 数据与上次绑定的数据相同（equals）时不再绑定，修改同一个对象后再传入不会重新绑定
+     *
+     * @param state   The {@link ViewState} to set {@link MultiStateView} to
+     * @param payload 绑定的数据，之后通过{@link #setViewState(int)}显示该状态时沿用此数据
+     */
+    public void setViewState(@ViewState int state, @Nullable Object payload) {
+        // 布局或StateBinder尚未设置时同样保存数据，设置后显示该状态时绑定
+        StateEntry entry = state > VIEW_STATE_CONTENT ? obtainStateEntry(state) : null;
+        if (entry != null) {
+            entry.payload = payload;
+        }
+        setViewState(state);
+        if (entry != null && mViewState == state) {
+            // 已经是该状态时只更新数据
+            bindStatePayload(entry);
+        }
+    }
+
+    /**
+     * 状态视图变化后重新创建ViewHolder，下次显示时重新绑定数据
+     */
+    private static void createViewHolder(@NonNull StateEntry entry) {
+        entry.holder = entry.binder != null && entry.view != null ? entry.binder.onCreateViewHolder(entry.view) : null;
+        entry.boundPayload = null;
+        entry.flags &= ~FLAG_PAYLOAD_BOUND;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void bindStatePayload(@Nullable StateEntry entry) {
+        if (entry == null || entry.holder == null || entry.binder == null) {
+            return;
+        }
+        if ((entry.flags & FLAG_PAYLOAD_BOUND) != 0 && Objects.equals(entry.boundPayload, entry.payload)) {
+            return;
+        }
+        ((StateBinder<Object>) entry.binder).onBindViewHolder(entry.holder, entry.payload);
+        entry.boundPayload = entry.payload;
+        entry.flags |= FLAG_PAYLOAD_BOUND;
+    }
+
+    /**
+     * 设置状态布局中id为{@code msv_message}的{@link TextView}显示的文字。
+     * 状态未显示时在后台线程通过{@link PrecomputedTextCompat}计算文字布局，显示时直接使用计算结果；
+     * 计算结果按文字及文字样式缓存，重复显示相同的文字不再计算。带样式的文字不会命中缓存。
+     * 文字样式取决于状态视图中的{@link TextView}，状态视图尚未创建时无法预先计算：
+     * 之后直接切换到该状态时，文字随视图在主线程测量；需要预先计算时可通过{@link #setPrewarmStates(int...)}
+     * 或{@link #getView(int)}提前创建状态视图
+     *
+     * @param state   状态类型，必须大于{@link #VIEW_STATE_CONTENT}
+     * @param message 显示的文字，null表示不修改布局中的文字
+     */
+    public void setStateMessage(@ViewState int state, @Nullable CharSequence message) {
+        StateEntry entry = obtainStateEntry(state);
+        // 复制一份，避免调用方修改后与缓存的结果不一致
+        entry.message = message instanceof Spanned ? new SpannedString(message)
+                : message != null ? message.toString() : null;
+        entry.flags &= ~FLAG_MESSAGE_APPLIED;
+        if (entry.view == null) {
+            return;
+        }
+        if (mViewState == state && entry.view.getVisibility() == VISIBLE) {
+            applyStateMessage(entry);
+        } else {
+            precomputeStateMessage(entry);
+        }
+    }
+
+    @Nullable
+    private static TextView findMessageView(@NonNull StateEntry entry) {
+        View view = entry.view != null ? entry.view.findViewById(R.id.msv_message) : null;
+        return view instanceof TextView ? (TextView) view : null;
+    }
+
+    /**
+     * 在后台线程计算状态文字的布局
+     */
+    private static void precomputeStateMessage(@NonNull StateEntry entry) {
+        TextView textView = entry.message != null ? findMessageView(entry) : null;
+        if (textView != null) {
+            PrecomputedTextCache.precompute(entry.message, TextViewCompat.getTextMetricsParams(textView));
+        }
+    }
+
+    /**
+     * 将状态文字设置到状态视图中，后台计算未完成时直接设置文字
+     */
+    private static void applyStateMessage(@NonNull StateEntry entry) {
+        if (entry.message == null || (entry.flags & FLAG_MESSAGE_APPLIED) != 0) {
+            return;
+        }
+        TextView textView = findMessageView(entry);
+        if (textView == null) {
+            return;
+        }
+        entry.flags |= FLAG_MESSAGE_APPLIED;
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+        PrecomputedTextCompat precomputedText = PrecomputedTextCache.get(entry.message, params);
+        if (precomputedText != null) {
+            TextViewCompat.setPrecomputedText(textView, precomputedText);
+        } else {
+            textView.setText(entry.message);
+        }
+    }
+
+    /**
+     * 移除状态及其视图，当前正处于该状态时切换到内容视图
+     *
+     * @param state 状态类型
+     */
+    public void unregisterState(@ViewState int state) {
+        StateEntry entry = mStates.get(state);
+        if (entry == null) {
+            return;
+        }
+        if (mViewState == state) {
+            applyViewState(VIEW_STATE_CONTENT);
+        }
+        mStates.remove(state);
+        removeView(entry.view);
+        removeView(entry.stub);
+    }
+
+    /**
+     * 指定状态是否设置了视图或布局
+     *
+     * @param state 状态类型
+     */
+    public boolean hasStateView(@ViewState int state) {
+        if (state == VIEW_STATE_CONTENT) {
+            return mContentView != null;
+        }
+        StateEntry entry = mStates.get(state);
+        return entry != null && (entry.view != null || entry.stub != null || entry.layoutResId != NO_ID
+                || entry.spec != null);
+    }
+
+    @NonNull
+    private StateEntry obtainStateEntry(@ViewState int state) {
+        if (state <= VIEW_STATE_CONTENT) {
+            throw new IllegalArgumentException("Invalid state: " + state);
+        }
+        StateEntry entry = mStates.get(state);
+        if (entry == null) {
+            entry = new StateEntry(state);
+            if (state == VIEW_STATE_PROCESS) {
+                entry.flags |= FLAG_SHOW_CONTENT;
+            }
+            mStates.put(state, entry);
+        }
+        return entry;
     }
 
     @Override
@@ -249,39 +815,47 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
     }
 
     public void setContentView(View mContentView) {
+        invalidateScrollView();
         removeView(this.mContentView);
         this.mContentView = mContentView;
         addView(mContentView);
     }
 
     public void setLoadingView(View mLoadingView) {
-        removeView(this.mLoadingView);
-        this.mLoadingView = mLoadingView;
-        addView(mLoadingView);
+        setStateView(VIEW_STATE_LOADING, mLoadingView);
     }
 
     public void setErrorView(View mErrorView) {
-        removeView(this.mErrorView);
-        this.mErrorView = mErrorView;
-        addView(mErrorView);
+        setStateView(VIEW_STATE_ERROR, mErrorView);
     }
 
     public void setEmptyView(View mEmptyView) {
-        removeView(this.mEmptyView);
-        this.mEmptyView = mEmptyView;
-        addView(mEmptyView);
+        setStateView(VIEW_STATE_EMPTY, mEmptyView);
     }
 
     public void setNoNetworkView(View mNoNetworkView) {
-        removeView(this.mNoNetworkView);
-        this.mNoNetworkView = mNoNetworkView;
-        addView(mNoNetworkView);
+        setStateView(VIEW_STATE_NO_NETWORK, mNoNetworkView);
     }
 
     public void setProcessView(View mProcessView) {
-        removeView(this.mProcessView);
-        this.mProcessView = mProcessView;
-        addView(mProcessView);
+        setStateView(VIEW_STATE_PROCESS, mProcessView);
+    }
+
+    /**
+     * 替换状态视图，不改变当前显示的状态
+     */
+    private void setStateView(@ViewState int state, View view) {
+        StateEntry entry = obtainStateEntry(state);
+        removeView(entry.view);
+        removeView(entry.stub);
+        entry.view = null;
+        entry.stub = null;
+        entry.flags &= ~FLAG_INFLATED;
+        if (view != null) {
+            attachStateView(entry, view);
+        } else {
+            createViewHolder(entry);
+        }
     }
 
     public boolean hasContentView() {
@@ -289,23 +863,23 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
     }
 
     public boolean hasProcessView() {
-        return mProcessView != null || mProcessViewResId != NO_ID;
+        return hasStateView(VIEW_STATE_PROCESS);
     }
 
     public boolean hasNoNetworkView() {
-        return mNoNetworkView != null || mNoNetworkViewResId != NO_ID;
+        return hasStateView(VIEW_STATE_NO_NETWORK);
     }
 
     public boolean hasEmptyView() {
-        return mEmptyView != null || mEmptyViewResId != NO_ID;
+        return hasStateView(VIEW_STATE_EMPTY);
     }
 
     public boolean hasErrorView() {
-        return mErrorView != null || mErrorViewResId != NO_ID;
+        return hasStateView(VIEW_STATE_ERROR);
     }
 
     public boolean hasLoadingView() {
-        return mLoadingView != null || mLoadingViewResId != NO_ID;
+        return hasStateView(VIEW_STATE_LOADING);
     }
 
     /**
@@ -320,57 +894,388 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
         isForceShowContent = forceShowContent;
     }
 
-    private void contentViewVisibility(boolean isShow) {
-        if (mContentView != null) {
-            mContentView.setVisibility(isForceShowContent || isShow ? VISIBLE : GONE);
-        }
-    }
-
     /**
-     * All of the addView methods have been overridden so that it can obtain the content view via XML
-     * It is NOT recommended to add views into MultiStateView via the addView methods, but rather use
-     * any of the setViewForState methods to set views for their given ViewState accordingly
+     * 设置{@link #findViewById(int)}未命中已存在的视图时，是否inflate所有状态布局继续查找。
+     * 设置为false时只查找已存在的视图，通过{@link #setClickListener(int, OnClickListener)}
+     * 设置的点击事件会在对应状态布局inflate时再绑定
+     *
+     * @param inflateOnFindView true表示inflate所有状态布局后查找
      */
-    @Override
-    public void addView(View child) {
-        if (isValidContentView(child)) mContentView = child;
-        super.addView(child);
-    }
-
-    @Override
-    public void addView(View child, int index) {
-        if (isValidContentView(child)) mContentView = child;
-        super.addView(child, index);
+    public void setInflateOnFindView(boolean inflateOnFindView) {
+        isInflateOnFindView = inflateOnFindView;
     }
 
-    @Override
-    public void addView(View child, int index, ViewGroup.LayoutParams params) {
-        if (isValidContentView(child)) mContentView = child;
-        super.addView(child, index, params);
+    public boolean isInflateOnFindView() {
+        return isInflateOnFindView;
     }
 
-    @Override
-    public void addView(View child, ViewGroup.LayoutParams params) {
-        if (isValidContentView(child)) mContentView = child;
-        super.addView(child, params);
+    /**
+     * 设置是否在后台线程inflate状态布局。开启后，首次切换到某个状态时先显示占位视图，
+     * 布局inflate完成后再替换显示；{@link #getView(int)}等需要立即返回视图的方法仍同步inflate。
+     * 后台inflate不经过{@link LayoutInflater.Factory}，AppCompat控件不会被自动替换
+     *
+     * @param asyncInflate true表示后台inflate
+     */
+    public void setAsyncInflate(boolean asyncInflate) {
+        isAsyncInflate = asyncInflate;
     }
 
-    @Override
-    public void addView(View child, int width, int height) {
-        if (isValidContentView(child)) mContentView = child;
-        super.addView(child, width, height);
+    public boolean isAsyncInflate() {
+        return isAsyncInflate;
+    }
+
+    /**
+     * 设置attach后在主线程空闲时预先后台inflate的状态
+     *
+     * @param states 需要预先inflate的状态，如{@link #VIEW_STATE_LOADING}、{@link #VIEW_STATE_ERROR}
+     */
+    public void setPrewarmStates(@ViewState int... states) {
+        for (int i = 0, size = mStates.size(); i < size; i++) {
+            mStates.valueAt(i).flags &= ~FLAG_PREWARM;
+        }
+        for (int state : states) {
+            if (state > VIEW_STATE_CONTENT) {
+                obtainStateEntry(state).flags |= FLAG_PREWARM;
+            }
+        }
+    }
+
+    /**
+     * 设置共享的状态视图缓存池，通过布局资源id创建的状态视图优先从缓存池中获取，
+     * 从窗口分离时归还到缓存池。归还时会清除视图树中的点击、触摸等事件监听，
+     * 复用的视图同样会回调{@link StateListener#onStateInflated(int, View)}，视图中的点击事件等应在该回调中重新设置，
+     * 通过{@link #setClickListener(int, OnClickListener)}设置的点击事件会自动重新绑定
+     *
+     * @param pool 缓存池，null表示不使用
+     */
+    public void setStateViewPool(@Nullable StateViewPool pool) {
+        mStateViewPool = pool;
+    }
+
+    @Nullable
+    public StateViewPool getStateViewPool() {
+        return mStateViewPool;
+    }
+
+    /**
+     * 设置离开状态时是否立即将状态视图归还到缓存池，默认false，仅在从窗口分离时归还
+     *
+     * @param recycleOnExit true表示离开状态时归还
+     */
+    public void setRecycleStateViewOnExit(boolean recycleOnExit) {
+        isRecycleStateViewOnExit = recycleOnExit;
+    }
+
+    /**
+     * 设置释放隐藏状态视图的内存级别，默认{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW}。
+     * 收到不低于此级别的{@link ComponentCallbacks2#onTrimMemory(int)}时，释放通过布局资源id创建且当前隐藏的状态视图，
+     * 再次显示时重新inflate；通过{@link #setViewForState(View, int)}等方法设置的视图不会被释放
+     *
+     * @param level {@link ComponentCallbacks2}中的TRIM_MEMORY_*级别，0表示不释放
+     */
+    public void setTrimMemoryLevel(int level) {
+        mTrimMemoryLevel = level;
+        if (level > 0) {
+            if (ViewCompat.isAttachedToWindow(this)) registerTrimMemoryCallbacks();
+        } else {
+            unregisterTrimMemoryCallbacks();
+        }
+    }
+
+    /**
+     * 设置离开状态后释放状态视图的等待时间，超过此时间仍未再次显示则释放，规则同{@link #setTrimMemoryLevel(int)}
+     *
+     * @param timeoutMillis 等待时间（毫秒），0表示不释放
+     */
+    public void setStateViewIdleTimeout(long timeoutMillis) {
+        mStateViewIdleTimeout = timeoutMillis;
+        if (timeoutMillis <= 0) {
+            removeCallbacks(mTrimIdleStateViewsRunnable);
+            isIdleTrimScheduled = false;
+        } else if (ViewCompat.isAttachedToWindow(this)) {
+            scheduleIdleTrim(timeoutMillis);
+        }
+    }
+
+    /**
+     * 设置状态视图被释放时的回调
+     */
+    public void setOnStateViewsTrimmedListener(@Nullable OnStateViewsTrimmedListener listener) {
+        mTrimmedListener = listener;
+    }
+
+    private void registerTrimMemoryCallbacks() {
+        if (!isTrimCallbacksRegistered && mTrimMemoryLevel > 0) {
+            getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+            isTrimCallbacksRegistered = true;
+        }
+    }
+
+    private void unregisterTrimMemoryCallbacks() {
+        if (isTrimCallbacksRegistered) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(mTrimMemoryCallbacks);
+            isTrimCallbacksRegistered = false;
+        }
+    }
+
+    private void scheduleIdleTrim(long delayMillis) {
+        if (mStateViewIdleTimeout > 0 && !isIdleTrimScheduled) {
+            isIdleTrimScheduled = true;
+            postDelayed(mTrimIdleStateViewsRunnable, delayMillis);
+        }
+    }
+
+    /**
+     * 释放离开时间超过{@link #mStateViewIdleTimeout}的状态视图，其余的等到期后再检查
+     */
+    private void trimIdleStateViews() {
+        if (mStateViewIdleTimeout <= 0) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        long nextDelay = Long.MAX_VALUE;
+        for (int i = 0, size = mStates.size(); i < size; i++) {
+            StateEntry entry = mStates.valueAt(i);
+            long delay = entry.hiddenTime + mStateViewIdleTimeout - now;
+            if (delay > 0 && isTrimmable(entry)) {
+                nextDelay = Math.min(nextDelay, delay);
+            }
+        }
+        trimStateViews(now - mStateViewIdleTimeout);
+        if (nextDelay != Long.MAX_VALUE) {
+            scheduleIdleTrim(nextDelay);
+        }
+    }
+
+    /**
+     * 释放在指定时间之前离开的隐藏状态视图
+     *
+     * @param hiddenBefore 离开状态的时间，0表示不限制
+     */
+    private void trimStateViews(long hiddenBefore) {
+        int viewCount = 0;
+        long bitmapByteCount = 0;
+        for (int i = 0, size = mStates.size(); i < size; i++) {
+            StateEntry entry = mStates.valueAt(i);
+            if (!isTrimmable(entry) || (hiddenBefore > 0 && entry.hiddenTime > hiddenBefore)) {
+                continue;
+            }
+            View view = detachStateView(entry);
+            if (mTrimmedListener != null) {
+                viewCount += countViews(view);
+                bitmapByteCount += estimateBitmapByteCount(view);
+            }
+        }
+        if (hiddenBefore == 0) {
+            // 内存紧张时缓存池中的视图及预先计算的文字同样需要释放
+            if (mStateViewPool != null) mStateViewPool.clear();
+            PrecomputedTextCache.clear();
+        }
+        if (viewCount > 0 && mTrimmedListener != null) {
+            mTrimmedListener.onStateViewsTrimmed(viewCount, bitmapByteCount);
+        }
+    }
+
+    /**
+     * 状态视图是否可以释放：通过布局资源id创建，且不是当前状态、没有在执行切换动画
+     */
+    private boolean isTrimmable(@NonNull StateEntry entry) {
+        return entry.view != null && (entry.flags & FLAG_INFLATED) != 0
+                && entry.state != mViewState && entry.view.getVisibility() == GONE;
+    }
+
+    private static int countViews(@NonNull View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, size = group.getChildCount(); i < size; i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 估算视图树中Bitmap占用的内存，资源缓存中共享的Bitmap不一定会随视图回收
+     */
+    private static long estimateBitmapByteCount(@NonNull View view) {
+        long bytes = getBitmapByteCount(view.getBackground());
+        if (view instanceof ImageView) {
+            bytes += getBitmapByteCount(((ImageView) view).getDrawable());
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, size = group.getChildCount(); i < size; i++) {
+                bytes += estimateBitmapByteCount(group.getChildAt(i));
+            }
+        }
+        return bytes;
+    }
+
+    private static long getBitmapByteCount(@Nullable Drawable drawable) {
+        if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() != null) {
+            return ((BitmapDrawable) drawable).getBitmap().getAllocationByteCount();
+        }
+        return 0;
+    }
+
+    /**
+     * 设置测量策略，默认{@link #MEASURE_ALL_CHILDREN}。
+     * 当覆盖在内容上的状态视图大小与内容无关时，使用{@link #MEASURE_ACTIVE_STATE}可避免切换状态时重新测量内容视图
+     *
+     * @param measureStrategy {@link #MEASURE_ALL_CHILDREN}或{@link #MEASURE_ACTIVE_STATE}
+     */
+    public void setMeasureStrategy(@MeasureStrategy int measureStrategy) {
+        if (mMeasureStrategy != measureStrategy) {
+            mMeasureStrategy = measureStrategy;
+            requestLayout();
+        }
+    }
+
+    @MeasureStrategy
+    public int getMeasureStrategy() {
+        return mMeasureStrategy;
+    }
+
+    /**
+     * 返回决定自身大小的子视图，即当前显示的状态视图
+     */
+    @Nullable
+    private View getActiveView() {
+        if (mPlaceholderView != null && mPlaceholderView.getVisibility() != GONE) {
+            return mPlaceholderView;
+        }
+        View view = mViewState == VIEW_STATE_UNKNOWN ? mContentView : peekStateView(mViewState);
+        return view != null && view.getVisibility() != GONE ? view : null;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final View activeView = mMeasureStrategy == MEASURE_ACTIVE_STATE ? getActiveView() : null;
+        if (activeView == null) {
+            mContentWidthMeasureSpec = -1;
+            mContentHeightMeasureSpec = -1;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        measureChildWithMargins(activeView, widthMeasureSpec, 0, heightMeasureSpec, 0);
+        final MarginLayoutParams lp = (MarginLayoutParams) activeView.getLayoutParams();
+        int width = activeView.getMeasuredWidth() + lp.leftMargin + lp.rightMargin + getPaddingLeft() + getPaddingRight();
+        int height = activeView.getMeasuredHeight() + lp.topMargin + lp.bottomMargin + getPaddingTop() + getPaddingBottom();
+        width = Math.max(width, getSuggestedMinimumWidth());
+        height = Math.max(height, getSuggestedMinimumHeight());
+        final int childState = activeView.getMeasuredState();
+        setMeasuredDimension(resolveSizeAndState(width, widthMeasureSpec, childState),
+                resolveSizeAndState(height, heightMeasureSpec, childState << MEASURED_HEIGHT_STATE_SHIFT));
+
+        final int exactWidthSpec = MeasureSpec.makeMeasureSpec(getMeasuredWidth(), MeasureSpec.EXACTLY);
+        final int exactHeightSpec = MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY);
+        if ((lp.width == LayoutParams.MATCH_PARENT && MeasureSpec.getMode(widthMeasureSpec) != MeasureSpec.EXACTLY)
+                || (lp.height == LayoutParams.MATCH_PARENT && MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.EXACTLY)) {
+            measureChildWithMargins(activeView, exactWidthSpec, 0, exactHeightSpec, 0);
+        }
+        if (activeView == mContentView) {
+            mContentWidthMeasureSpec = -1;
+            mContentHeightMeasureSpec = -1;
+        }
+        for (int i = 0, count = getChildCount(); i < count; i++) {
+            final View child = getChildAt(i);
+            if (child == activeView || child.getVisibility() == GONE) {
+                continue;
+            }
+            if (child == mContentView) {
+                // 状态视图覆盖在内容上时，内容视图大小只取决于自身大小，条件未变化时复用上次的测量结果
+                if (mContentWidthMeasureSpec == exactWidthSpec && mContentHeightMeasureSpec == exactHeightSpec
+                        && !child.isLayoutRequested()) {
+                    continue;
+                }
+                mContentWidthMeasureSpec = exactWidthSpec;
+                mContentHeightMeasureSpec = exactHeightSpec;
+            }
+            measureChildWithMargins(child, exactWidthSpec, 0, exactHeightSpec, 0);
+        }
+    }
+
+    /**
+     * 设置隐藏内容视图的方式，默认{@link #CONTENT_HIDE_GONE}。
+     * 频繁在加载中与内容之间切换（如下拉刷新、分页重试）时，使用{@link #CONTENT_HIDE_INVISIBLE}
+     * 可避免内容视图（如RecyclerView）每次返回时重新测量、布局
+     *
+     * @param contentHideMode {@link #CONTENT_HIDE_GONE}或{@link #CONTENT_HIDE_INVISIBLE}
+     */
+    public void setContentHideMode(@ContentHideMode int contentHideMode) {
+        mContentHideMode = contentHideMode;
+        if (mContentView != null && mContentView.getVisibility() != VISIBLE) {
+            contentViewVisibility(false);
+        }
+    }
+
+    @ContentHideMode
+    public int getContentHideMode() {
+        return mContentHideMode;
+    }
+
+    private void contentViewVisibility(boolean isShow) {
+        if (mContentView != null) {
+            mContentView.setVisibility(isForceShowContent || isShow ? VISIBLE
+                    : mContentHideMode == CONTENT_HIDE_INVISIBLE ? INVISIBLE : GONE);
+        }
+    }
+
+    /**
+     * All of the addView methods have been overridden so that it can obtain the content view via XML
+     * It is NOT recommended to add views into MultiStateView via the addView methods, but rather use
+     * any of the setViewForState methods to set views for their given ViewState accordingly
+     */
+    @Override
+    public void addView(View child) {
+        if (isValidContentView(child, child.getLayoutParams())) mContentView = child;
+        super.addView(child);
+    }
+
+    @Override
+    public void addView(View child, int index) {
+        if (isValidContentView(child, child.getLayoutParams())) mContentView = child;
+        super.addView(child, index);
+    }
+
+    @Override
+    public void addView(View child, int index, ViewGroup.LayoutParams params) {
+        if (isValidContentView(child, params)) mContentView = child;
+        super.addView(child, index, params);
+        onChildStateViewAdded(child);
+    }
+
+    @Override
+    public void addView(View child, ViewGroup.LayoutParams params) {
+        if (isValidContentView(child, params)) mContentView = child;
+        super.addView(child, params);
+    }
+
+    @Override
+    public void addView(View child, int width, int height) {
+        if (isValidContentView(child, child.getLayoutParams())) mContentView = child;
+        super.addView(child, width, height);
     }
 
     @Override
     protected boolean addViewInLayout(View child, int index, ViewGroup.LayoutParams params) {
-        if (isValidContentView(child)) mContentView = child;
-        return super.addViewInLayout(child, index, params);
+        if (isValidContentView(child, params)) mContentView = child;
+        if (!super.addViewInLayout(child, index, params)) {
+            return false;
+        }
+        onChildStateViewAdded(child);
+        return true;
     }
 
     @Override
     protected boolean addViewInLayout(View child, int index, ViewGroup.LayoutParams params, boolean preventRequestLayout) {
-        if (isValidContentView(child)) mContentView = child;
-        return super.addViewInLayout(child, index, params, preventRequestLayout);
+        if (isValidContentView(child, params)) mContentView = child;
+        if (!super.addViewInLayout(child, index, params, preventRequestLayout)) {
+            return false;
+        }
+        onChildStateViewAdded(child);
+        return true;
     }
 
     /**
@@ -381,41 +1286,11 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
      */
     @Nullable
     public View getView(@ViewState int state) {
-        switch (state) {
-            case VIEW_STATE_LOADING:
-                ensureLoadingView();
-                return mLoadingView;
-            case VIEW_STATE_CONTENT:
-                return mContentView;
-            case VIEW_STATE_EMPTY:
-                ensureEmptyView();
-                return mEmptyView;
-            case VIEW_STATE_ERROR:
-                ensureErrorView();
-                return mErrorView;
-            case VIEW_STATE_NO_NETWORK:
-                ensureNoNetWorkView();
-                return mNoNetworkView;
-            case VIEW_STATE_PROCESS:
-                ensureProcessView();
-                return mProcessView;
-            case VIEW_STATE_UNKNOWN:
-            default:
-                return null;
-        }
-    }
-
-    private void ensureProcessView() {
-        if (mProcessView == null && mProcessViewResId != NO_ID) {
-            mProcessView = mInflater.inflate(mProcessViewResId, this, false);
-            mProcessView.setTag(R.id.tag_multi_state_view, TAG_NO_NETWORK);
-            addView(mProcessView, mProcessView.getLayoutParams());
-            if (mListener != null) mListener.onStateInflated(VIEW_STATE_PROCESS, mProcessView);
-
-            if (mViewState != VIEW_STATE_NO_NETWORK) {
-                mProcessView.setVisibility(GONE);
-            }
+        if (state == VIEW_STATE_CONTENT) {
+            return mContentView;
         }
+        StateEntry entry = mStates.get(state);
+        return entry != null ? ensureStateView(entry) : null;
     }
 
     public View getProcessView() {
@@ -442,43 +1317,378 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
         return getView(VIEW_STATE_EMPTY);
     }
 
-    private void ensureNoNetWorkView() {
-        if (mNoNetworkView == null && mNoNetworkViewResId != NO_ID) {
-            mNoNetworkView = mInflater.inflate(mNoNetworkViewResId, this, false);
-            mNoNetworkView.setTag(R.id.tag_multi_state_view, TAG_NO_NETWORK);
-            addView(mNoNetworkView, mNoNetworkView.getLayoutParams());
-            if (mListener != null) mListener.onStateInflated(VIEW_STATE_NO_NETWORK, mNoNetworkView);
+    /**
+     * 返回状态视图，尚未创建时同步inflate
+     */
+    @Nullable
+    private View ensureStateView(@NonNull StateEntry entry) {
+        if (entry.view == null) {
+            if (entry.stub != null) {
+                inflateStubStateView(entry);
+            } else if (entry.layoutResId != NO_ID) {
+                addInflatedStateView(entry, inflateStateView(entry.layoutResId));
+            }
+        }
+        return entry.view;
+    }
+
+    /**
+     * inflate XML中通过{@code <ViewStub app:layout_msvState="...">}声明的状态视图，
+     * 替换后的视图沿用ViewStub的布局参数及位置
+     */
+    private void inflateStubStateView(@NonNull StateEntry entry) {
+        ViewStub stub = entry.stub;
+        entry.stub = null;
+        View view;
+        Trace.beginSection(TRACE_INFLATE);
+        if (mTransitionTracker != null) mTransitionTracker.beginInflate();
+        entry.flags |= FLAG_STUB_INFLATING;
+        try {
+            view = stub.inflate();
+        } finally {
+            entry.flags &= ~FLAG_STUB_INFLATING;
+            if (mTransitionTracker != null) mTransitionTracker.endInflate();
+            Trace.endSection();
+        }
+        setupStateChildView(entry, view);
+        dispatchStateInflated(entry.state, view);
+    }
+
+    /**
+     * 返回已存在的状态视图，不会触发inflate
+     */
+    @Nullable
+    private View peekStateView(@ViewState int state) {
+        if (state == VIEW_STATE_CONTENT) {
+            return mContentView;
+        }
+        StateEntry entry = mStates.get(state);
+        return entry != null ? entry.view : null;
+    }
+
+    /**
+     * 创建状态视图，优先从缓存池中获取
+     *
+     * @param layoutResId 布局资源id
+     */
+    private View inflateStateView(@LayoutRes int layoutResId) {
+        View view = mStateViewPool != null ? mStateViewPool.acquire(layoutResId, getContext()) : null;
+        if (view == null) {
+            Trace.beginSection(TRACE_INFLATE);
+            if (mTransitionTracker != null) mTransitionTracker.beginInflate();
+            try {
+                view = mInflater.inflate(layoutResId, this, false);
+            } finally {
+                if (mTransitionTracker != null) mTransitionTracker.endInflate();
+                Trace.endSection();
+            }
+        }
+        return view;
+    }
+
+    /**
+     * 将状态视图移除并归还到缓存池，之后需要时重新获取
+     *
+     * @param entry 状态
+     */
+    private void recycleStateView(@Nullable StateEntry entry) {
+        if (mStateViewPool == null || entry == null || entry.view == null || (entry.flags & FLAG_INFLATED) == 0) {
+            return;
+        }
+        View view = detachStateView(entry);
+        resetRecycledView(view);
+        mStateViewPool.release(entry.layoutResId, view);
+    }
+
+    /**
+     * 恢复切换动画可能修改的视图属性，自定义的{@link StateTransition}未恢复时同样生效；
+     * 同时清除视图树中的事件监听，避免缓存池中的视图持有原MultiStateView及其页面
+     */
+    private static void resetRecycledView(@NonNull View view) {
+        view.animate().cancel();
+        view.setAlpha(1f);
+        view.setTranslationX(0f);
+        view.setTranslationY(0f);
+        view.setScaleX(1f);
+        view.setScaleY(1f);
+        if (view.getLayerType() != LAYER_TYPE_NONE) {
+            view.setLayerType(LAYER_TYPE_NONE, null);
+        }
+        view.setVisibility(VISIBLE);
+        clearViewListeners(view);
+    }
+
+    /**
+     * 清除视图及其子视图的事件监听，新的持有者通过{@link #setClickListener(int, OnClickListener)}
+     * 或{@link StateListener#onStateInflated(int, View)}重新设置
+     */
+    private static void clearViewListeners(@NonNull View view) {
+        if (view.hasOnClickListeners()) {
+            // 仅在设置过监听时清除，setOnClickListener会将视图设为可点击
+            view.setOnClickListener(null);
+        }
+        view.setOnTouchListener(null);
+        view.setOnFocusChangeListener(null);
+        view.setOnKeyListener(null);
+        if (view.isLongClickable()) {
+            // setOnLongClickListener同样会修改longClickable，只处理已可长按的视图
+            view.setOnLongClickListener(null);
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                clearViewListeners(group.getChildAt(i));
+            }
+        }
+    }
+
+    /**
+     * 移除状态视图，之后需要时通过布局资源id重新创建
+     *
+     * @return 移除的视图
+     */
+    @NonNull
+    private View detachStateView(@NonNull StateEntry entry) {
+        View view = entry.view;
+        entry.view = null;
+        entry.flags &= ~FLAG_INFLATED;
+        createViewHolder(entry);
+        removeView(view);
+        return view;
+    }
+
+    /**
+     * 将inflate得到的状态视图添加到布局中
+     *
+     * @param entry 状态
+     * @param view  inflate得到的视图
+     */
+    private void addInflatedStateView(@NonNull StateEntry entry, View view) {
+        entry.flags |= FLAG_INFLATED;
+        attachStateView(entry, view);
+        dispatchStateInflated(entry.state, view);
+    }
+
+    /**
+     * 将状态视图添加到布局中，不是当前状态时隐藏
+     */
+    private void attachStateView(@NonNull StateEntry entry, @NonNull View view) {
+        entry.view = view;
+        entry.flags &= ~FLAG_MESSAGE_APPLIED;
+        LayoutParams lp = toStateLayoutParams(view.getLayoutParams());
+        lp.state = entry.state;
+        addView(view, lp);
+        bindPendingClickListeners(view);
+        createViewHolder(entry);
+        if (mViewState != entry.state) {
+            view.setVisibility(GONE);
+            // 预先inflate或在后台inflate完成时已离开的状态，从添加时开始计算离开时间
+            entry.hiddenTime = SystemClock.uptimeMillis();
+            scheduleIdleTrim(mStateViewIdleTimeout);
+            precomputeStateMessage(entry);
+        } else if (mPlaceholderView != null) {
+            // 后台inflate期间通过getView(int)等同步创建了当前状态的视图，直接替换占位视图
+            mPlaceholderView.setVisibility(GONE);
+        }
+    }
 
-            if (mViewState != VIEW_STATE_NO_NETWORK) {
-                mNoNetworkView.setVisibility(GONE);
+    /**
+     * 在后台线程inflate状态布局
+     *
+     * @param entry 状态
+     * @return true表示状态视图尚未就绪，正在后台inflate
+     */
+    private boolean inflateStateViewAsync(@Nullable StateEntry entry) {
+        if (entry == null || entry.layoutResId == NO_ID || entry.view != null || entry.stub != null) {
+            return false;
+        }
+        View pooledView = mStateViewPool != null ? mStateViewPool.acquire(entry.layoutResId, getContext()) : null;
+        if (pooledView != null) {
+            addInflatedStateView(entry, pooledView);
+            return false;
+        }
+        if ((entry.flags & FLAG_ASYNC_INFLATING) == 0) {
+            entry.flags |= FLAG_ASYNC_INFLATING;
+            if (mAsyncInflater == null) {
+                mAsyncInflater = new AsyncLayoutInflater(getContext());
+            }
+            mAsyncInflater.inflate(entry.layoutResId, this, new StateInflateFinishedListener(entry));
+        }
+        return true;
+    }
+
+    private final class StateInflateFinishedListener implements AsyncLayoutInflater.OnInflateFinishedListener {
+        private final StateEntry entry;
+
+        StateInflateFinishedListener(StateEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+            entry.flags &= ~FLAG_ASYNC_INFLATING;
+            // 期间可能已同步inflate、重新设置了布局或移除了该状态
+            if (entry.view != null || entry.layoutResId != resid || mStates.get(entry.state) != entry) {
+                return;
+            }
+            addInflatedStateView(entry, view);
+            if (entry.state == mViewState) {
+                setView(VIEW_STATE_UNKNOWN);
+            }
+        }
+    }
+
+    /**
+     * 隐藏离开的状态视图，显示占位视图，内容视图按当前状态处理
+     *
+     * @param previousState 之前的状态
+     */
+    private void showPlaceholderView(@ViewState int previousState) {
+        if (mPlaceholderView == null) {
+            mPlaceholderView = new View(getContext());
+            LayoutParams lp = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+            lp.state = VIEW_STATE_UNKNOWN;
+            addView(mPlaceholderView, lp);
+        }
+        showStateSpec(null);
+        if (previousState == VIEW_STATE_UNKNOWN) {
+            hideStateViewsExcept(null);
+        } else {
+            View previousView = peekStateView(previousState);
+            if (previousView != null && previousView != mContentView) previousView.setVisibility(View.GONE);
+        }
+        contentViewVisibility(isContentShownIn(mViewState));
+        mPlaceholderView.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * 隐藏除指定视图外的所有状态视图，只在无法确定之前显示的状态时使用
+     */
+    private void hideStateViewsExcept(@Nullable View view) {
+        for (int i = 0, size = mStates.size(); i < size; i++) {
+            View stateView = mStates.valueAt(i).view;
+            if (stateView != null && stateView != view) stateView.setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * Returns the current {@link ViewState}
+     *
+     * @return
+     */
+    @ViewState
+    public int getViewState() {
+        return mViewState;
+    }
+
+    /**
+     * Sets the current {@link ViewState}
+     *
+     * @param state The {@link ViewState} to set {@link MultiStateView} to
+     */
+    public void setViewState(@ViewState int state) {
+        if (mPendingViewState != NO_PENDING_STATE) {
+            removeCallbacks(mPendingViewStateRunnable);
+            mPendingViewState = NO_PENDING_STATE;
+        }
+        if (state == mViewState) {
+            return;
+        }
+        if (state == VIEW_STATE_LOADING && mLoadingShowDelay > 0) {
+            postPendingViewState(state, mLoadingShowDelay);
+            return;
+        }
+        if (mViewState == VIEW_STATE_LOADING && mLoadingMinShowTime > 0) {
+            long remaining = mLoadingShownTime + mLoadingMinShowTime - SystemClock.uptimeMillis();
+            if (remaining > 0) {
+                postPendingViewState(state, remaining);
+                return;
             }
         }
+        applyViewState(state);
     }
 
     /**
-     * Returns the current {@link ViewState}
+     * 在下一帧切换到指定状态，可在任意线程调用。
+     * 同一帧内多次调用只会切换到最后一次提交的状态，{@link StateListener#onStateChanged(int)}只回调一次
      *
-     * @return
+     * @param state The {@link ViewState} to set {@link MultiStateView} to
      */
-    @ViewState
-    public int getViewState() {
-        return mViewState;
+    @AnyThread
+    public void postViewState(@ViewState int state) {
+        if (mPostedViewState.getAndSet(state) != NO_PENDING_STATE) {
+            // 已提交过，等待下一帧统一处理
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mSchedulePostedViewStateRunnable.run();
+        } else {
+            MAIN_HANDLER.post(mSchedulePostedViewStateRunnable);
+        }
     }
 
     /**
-     * Sets the current {@link ViewState}
+     * 是否有尚未切换的状态：{@link #postViewState(int)}提交后等待下一帧切换，
+     * 或因加载中视图的延迟显示、最短显示时间而延迟切换。此时{@link #getViewState()}不是最终的状态
+     */
+    public boolean hasPendingViewState() {
+        return mPendingViewState != NO_PENDING_STATE || mPostedViewState.get() != NO_PENDING_STATE;
+    }
+
+    private void postPendingViewState(@ViewState int state, long delayMillis) {
+        mPendingViewState = state;
+        postDelayed(mPendingViewStateRunnable, delayMillis);
+    }
+
+    /**
+     * 立即切换到指定状态
      *
      * @param state The {@link ViewState} to set {@link MultiStateView} to
      */
-    public void setViewState(@ViewState int state) {
+    private void applyViewState(@ViewState int state) {
         if (state != mViewState) {
             int previous = mViewState;
             mViewState = state;
+            if (state != VIEW_STATE_NO_NETWORK) {
+                // 断网期间切换到其他状态，网络恢复后不再还原
+                mStateBeforeNoNetwork = NO_PENDING_STATE;
+            }
+            if (state == VIEW_STATE_LOADING) {
+                mLoadingShownTime = SystemClock.uptimeMillis();
+            }
+            if (mTransitionTracker != null) mTransitionTracker.begin(previous, state);
             setView(previous);
-            if (mListener != null) mListener.onStateChanged(mViewState);
+            StateEntry previousEntry = mStates.get(previous);
+            if (previousEntry != null) {
+                previousEntry.hiddenTime = SystemClock.uptimeMillis();
+                scheduleIdleTrim(mStateViewIdleTimeout);
+            }
+            if (isRecycleStateViewOnExit && !mAnimateViewChanges) {
+                recycleStateView(previousEntry);
+            }
+            dispatchStateChanged(mViewState);
         }
     }
 
+    /**
+     * 设置延迟显示加载中视图的时间，在此时间内切换到其他状态则不会显示加载中视图，
+     * 也不会inflate加载中布局。延迟期间{@link #getViewState()}仍返回之前的状态
+     *
+     * @param delayMillis 延迟时间（毫秒），0表示立即显示
+     */
+    public void setLoadingShowDelay(long delayMillis) {
+        mLoadingShowDelay = delayMillis;
+    }
+
+    /**
+     * 设置加载中视图显示后的最短显示时间，在此时间内切换到其他状态会等到时间结束后再切换
+     *
+     * @param minShowTimeMillis 最短显示时间（毫秒），0表示不限制
+     */
+    public void setLoadingMinShowTime(long minShowTimeMillis) {
+        mLoadingMinShowTime = minShowTimeMillis;
+    }
+
     public boolean isContentView() {
         return mViewState == VIEW_STATE_CONTENT;
     }
@@ -588,299 +1798,650 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
      * Shows the {@link View} based on the {@link ViewState}
      */
     private void setView(@ViewState int previousState) {
-        switch (mViewState) {
-            case VIEW_STATE_LOADING:
-                ensureLoadingView();
-                if (mLoadingView == null) {
-                    throw new NullPointerException("Loading View");
-                }
-                contentViewVisibility(false);
-                if (mErrorView != null) mErrorView.setVisibility(View.GONE);
-                if (mEmptyView != null) mEmptyView.setVisibility(View.GONE);
-                if (mNoNetworkView != null) mNoNetworkView.setVisibility(View.GONE);
-                if (mProcessView != null) mProcessView.setVisibility(View.GONE);
-                if (mAnimateViewChanges) {
-                    animateLayoutChange(getView(previousState));
-                } else {
-                    mLoadingView.setVisibility(View.VISIBLE);
-                }
-                break;
+        Trace.beginSection(TRACE_SET_VIEW);
+        try {
+            showView(previousState);
+            if (isAnimationsPaused) {
+                // 暂停期间切换到的状态视图同样不执行动画
+                pauseAnimations();
+            }
+        } finally {
+            Trace.endSection();
+        }
+    }
 
-            case VIEW_STATE_EMPTY:
+    private void showView(@ViewState int previousState) {
+        if (mTransition != null) {
+            // 结束上一次未完成的切换动画，避免动画叠加导致视图可见性错误
+            mTransition.cancel();
+        }
+        final StateEntry entry = mStates.get(mViewState);
+        if (isAsyncInflate && inflateStateViewAsync(entry)) {
+            showPlaceholderView(previousState);
+            return;
+        }
+        if (mPlaceholderView != null) {
+            mPlaceholderView.setVisibility(View.GONE);
+        }
+        final View currentView;
+        if (mViewState == VIEW_STATE_UNKNOWN || mViewState == VIEW_STATE_CONTENT) {
+            if (mContentView == null) {
+                // Should never happen, the view should throw an exception if no content view is present upon creation
+                throw new NullPointerException("Content View");
+            }
+            currentView = mContentView;
+        } else if (isDrawnState(entry)) {
+            // 由自身绘制的状态没有对应的视图
+            currentView = null;
+        } else {
+            currentView = entry != null ? ensureStateView(entry) : null;
+            if (currentView == null) {
+                throw new NullPointerException("No view for state " + mViewState);
+            }
+        }
+        showStateSpec(currentView == null ? entry.spec : null);
+        if (currentView != null && entry != null) {
+            applyStateMessage(entry);
+            bindStatePayload(entry);
+        }
+        final View previousView;
+        if (previousState == VIEW_STATE_UNKNOWN) {
+            // 无法确定之前显示的视图（如attach、重新设置视图时），隐藏所有其他状态视图
+            hideStateViewsExcept(currentView);
+            previousView = null;
+        } else {
+            previousView = peekStateView(previousState);
+        }
+        if (currentView != mContentView) {
+            contentViewVisibility(isContentShownIn(mViewState));
+        }
+        if (isAnimateViewChanges()) {
+            animateLayoutChange(previousView, currentView);
+            return;
+        }
+        if (previousView != null && previousView != currentView && previousView != mContentView) {
+            previousView.setVisibility(View.GONE);
+        }
+        if (currentView == mContentView) {
+            contentViewVisibility(true);
+        } else if (currentView != null) {
+            currentView.setVisibility(View.VISIBLE);
+        }
+    }
 
-                ensureEmptyView();
+    /**
+     * 状态是否没有布局和视图，只能通过{@link StateSpec}绘制
+     */
+    private static boolean isDrawnState(@Nullable StateEntry entry) {
+        return entry != null && entry.spec != null && entry.view == null && entry.stub == null
+                && entry.layoutResId == NO_ID;
+    }
 
-                if (mEmptyView == null) {
-                    throw new NullPointerException("Empty View");
-                }
+    /**
+     * 设置需要绘制的状态，null表示不绘制
+     */
+    private void showStateSpec(@Nullable StateSpec spec) {
+        if (mSpecRenderer == null) {
+            if (spec == null) {
+                return;
+            }
+            mSpecRenderer = new StateSpecRenderer(this);
+        }
+        if (mSpecRenderer.getSpec() != spec) {
+            mSpecRenderer.setSpec(spec);
+            invalidate();
+        }
+    }
 
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (mSpecRenderer != null) {
+            mSpecRenderer.draw(canvas);
+        }
+    }
 
-                if (mLoadingView != null) mLoadingView.setVisibility(View.GONE);
-                if (mErrorView != null) mErrorView.setVisibility(View.GONE);
-                contentViewVisibility(false);
-                if (mNoNetworkView != null) mNoNetworkView.setVisibility(View.GONE);
-                if (mProcessView != null) mProcessView.setVisibility(View.GONE);
-                if (mAnimateViewChanges) {
-                    animateLayoutChange(getView(previousState));
-                } else {
-                    mEmptyView.setVisibility(View.VISIBLE);
-                }
-                break;
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        if (mSpecRenderer != null && mSpecRenderer.dispatchHoverEvent(event)) {
+            return true;
+        }
+        return super.dispatchHoverEvent(event);
+    }
 
-            case VIEW_STATE_ERROR:
+    /**
+     * Checks if the given {@link View} is valid for the Content View
+     *
+     * @param view   The {@link View} to check
+     * @param params 添加时使用的布局参数
+     * @return
+     */
+    private boolean isValidContentView(View view, @Nullable ViewGroup.LayoutParams params) {
+        if (mContentView != null && mContentView != view) {
+            return false;
+        }
+        // 状态视图及占位视图的布局参数都标记了状态类型
+        return getChildState(params) == VIEW_STATE_CONTENT;
+    }
 
-                ensureErrorView();
+    /**
+     * 子视图对应的状态，非{@link LayoutParams}视为内容视图
+     */
+    @ViewState
+    private static int getChildState(@Nullable ViewGroup.LayoutParams params) {
+        return params instanceof LayoutParams ? ((LayoutParams) params).state : VIEW_STATE_CONTENT;
+    }
 
-                if (mErrorView == null) {
-                    throw new NullPointerException("Error View");
-                }
+    /**
+     * XML中通过{@code app:layout_msvState}声明的状态视图，作为该状态的视图
+     */
+    private void onChildStateViewAdded(View child) {
+        int state = getChildState(child.getLayoutParams());
+        if (state <= VIEW_STATE_CONTENT) {
+            return;
+        }
+        StateEntry entry = obtainStateEntry(state);
+        if (entry.view == child || (entry.flags & FLAG_STUB_INFLATING) != 0) {
+            // 通过attachStateView或inflateStubStateView添加
+            return;
+        }
+        if (entry.view != null) {
+            removeView(entry.view);
+        }
+        if (entry.stub != null) {
+            removeView(entry.stub);
+        }
+        if (child instanceof ViewStub) {
+            // 首次切换到该状态时再inflate
+            entry.view = null;
+            entry.stub = (ViewStub) child;
+            entry.flags &= ~FLAG_INFLATED;
+            return;
+        }
+        entry.stub = null;
+        entry.flags &= ~FLAG_INFLATED;
+        setupStateChildView(entry, child);
+    }
 
+    /**
+     * 记录XML中声明的状态视图，不是当前状态时隐藏
+     */
+    private void setupStateChildView(@NonNull StateEntry entry, @NonNull View view) {
+        entry.view = view;
+        entry.flags &= ~FLAG_MESSAGE_APPLIED;
+        bindPendingClickListeners(view);
+        createViewHolder(entry);
+        if (mViewState != entry.state) {
+            view.setVisibility(GONE);
+            precomputeStateMessage(entry);
+        }
+    }
 
-                if (mLoadingView != null) mLoadingView.setVisibility(View.GONE);
-                contentViewVisibility(false);
-                if (mEmptyView != null) mEmptyView.setVisibility(View.GONE);
-                if (mNoNetworkView != null) mNoNetworkView.setVisibility(View.GONE);
-                if (mProcessView != null) mProcessView.setVisibility(View.GONE);
-                if (mAnimateViewChanges) {
-                    animateLayoutChange(getView(previousState));
-                } else {
-                    mErrorView.setVisibility(View.VISIBLE);
-                }
-                break;
-            case VIEW_STATE_NO_NETWORK:
-                ensureNoNetWorkView();
-                if (mNoNetworkView == null) {
-                    throw new NullPointerException("No Network View");
-                }
-                if (mLoadingView != null) mLoadingView.setVisibility(View.GONE);
-                contentViewVisibility(false);
-                if (mEmptyView != null) mEmptyView.setVisibility(View.GONE);
-                if (mProcessView != null) mProcessView.setVisibility(View.GONE);
-                if (mAnimateViewChanges) {
-                    animateLayoutChange(getView(previousState));
-                } else {
-                    mNoNetworkView.setVisibility(View.VISIBLE);
-                }
-                break;
-            case VIEW_STATE_PROCESS:
-                ensureProcessView();
-                if (mProcessView == null) {
-                    throw new NullPointerException("No Network View");
-                }
-                if (mLoadingView != null) mLoadingView.setVisibility(View.GONE);
-                contentViewVisibility(true);
-                if (mEmptyView != null) mEmptyView.setVisibility(View.GONE);
-
-                if (mAnimateViewChanges) {
-                    animateLayoutChange(getView(previousState));
-                } else {
-                    mProcessView.setVisibility(View.VISIBLE);
-                }
-                break;
-            case VIEW_STATE_CONTENT:
+    /**
+     * @param id the id of the view to be found
+     * @return the view of the specified id, null if cannot be found
+     */
+    @Keep
+    protected <T extends View> T findViewTraversal(@IdRes int id) {
+        if (id == getId()) {
+            return (T) this;
+        }
+        View v = findViewInChildren(id);
+        if (v != null) {
+            return (T) v;
+        }
+        if (!isInflateOnFindView) {
+            // 状态视图都已作为子视图查找过，不再inflate尚未创建的状态布局
+            return null;
+        }
+        // 内容视图及已添加的状态视图在上面已查找过，只需inflate尚未创建的状态布局
+        View view = null;
+        for (int i = 0; i < mStates.size(); i++) {
+            StateEntry entry = mStates.valueAt(i);
+            if (entry.view != null) {
+                // 已添加的状态视图在上面已查找过
+                continue;
+            }
+            View stateView = ensureStateView(entry);
+            if (stateView != null) {
+                view = stateView.findViewById(id);
+            }
+            if (view != null) {
+                return (T) view;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 只在已添加的子视图中查找，不会触发inflate
+     *
+     * @param id the id of the view to be found
+     * @return the view of the specified id, null if cannot be found
+     */
+    @Nullable
+    private View findViewInChildren(@IdRes int id) {
+        final int len = getChildCount();
+        for (int i = 0; i < len; i++) {
+            View v = getChildAt(i).findViewById(id);
+            if (v != null) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the view for the given view state
+     *
+     * @param view          The {@link View} to use
+     * @param state         The {@link ViewState}to set
+     * @param switchToState If the {@link ViewState} should be switched to
+     */
+    public void setViewForState(View view, @ViewState int state, boolean switchToState) {
+        invalidateScrollView();
+        if (state == VIEW_STATE_CONTENT) {
+            if (mContentView != null) removeView(mContentView);
+            mContentView = view;
+            addView(mContentView);
+        } else if (state > VIEW_STATE_CONTENT) {
+            setStateView(state, view);
+        }
+
+        setView(VIEW_STATE_UNKNOWN);
+        if (switchToState) setViewState(state);
+    }
+
+    /**
+     * Sets the {@link View} for the given {@link ViewState}
+     *
+     * @param view  The {@link View} to use
+     * @param state The {@link ViewState} to set
+     */
+    public void setViewForState(View view, @ViewState int state) {
+        setViewForState(view, state, false);
+    }
+
+    /**
+     * Sets the {@link View} for the given {@link ViewState}
+     *
+     * @param layoutRes     Layout resource id
+     * @param state         The {@link ViewState} to set
+     * @param switchToState If the {@link ViewState} should be switched to
+     */
+    public void setViewForState(@LayoutRes int layoutRes, @ViewState int state, boolean switchToState) {
+        if (mInflater == null) mInflater = LayoutInflater.from(getContext());
+        View view = mInflater.inflate(layoutRes, this, false);
+        setViewForState(view, state, switchToState);
+    }
+
+    /**
+     * Sets the {@link View} for the given {@link ViewState}
+     *
+     * @param layoutRes Layout resource id
+     * @param state     The {@link View} state to set
+     */
+    public void setViewForState(@LayoutRes int layoutRes, @ViewState int state) {
+        setViewForState(layoutRes, state, false);
+    }
+
+    /**
+     * Sets whether an animate will occur when changing between {@link ViewState}
+     *
+     * @param animate
+     */
+    public void setAnimateLayoutChanges(boolean animate) {
+        mAnimateViewChanges = animate;
+        if (animate && mTransition == null) {
+            mTransition = new CrossFadeTransition();
+        }
+    }
+
+    /**
+     * 设置状态切换动画，如{@link CrossFadeTransition}、{@link SlideTransition}，null表示不执行动画
+     *
+     * @param transition 切换动画，一个实例只能用于一个{@link MultiStateView}
+     */
+    public void setStateTransition(@Nullable StateTransition transition) {
+        if (mTransition != null) {
+            mTransition.cancel();
+        }
+        mTransition = transition;
+        mAnimateViewChanges = transition != null;
+    }
+
+    @Nullable
+    public StateTransition getStateTransition() {
+        return mTransition;
+    }
+
+    /**
+     * 设置状态切换动画时长，默认250毫秒
+     *
+     * @param duration 动画时长（毫秒）
+     */
+    public void setTransitionDuration(long duration) {
+        mTransitionDuration = duration;
+    }
+
+    /**
+     * 设置状态切换动画插值器
+     *
+     * @param interpolator 插值器，null表示使用默认插值器
+     */
+    public void setTransitionInterpolator(@Nullable TimeInterpolator interpolator) {
+        mTransitionInterpolator = interpolator;
+    }
+
+    private boolean isAnimateViewChanges() {
+        return mAnimateViewChanges && mTransition != null;
+    }
+
+    @Nullable
+    private static StateTransition createTransition(int transition) {
+        switch (transition) {
+            case TRANSITION_CROSS_FADE:
+                return new CrossFadeTransition();
+            case TRANSITION_SLIDE:
+                return new SlideTransition();
+            case TRANSITION_NONE:
             default:
-                if (mContentView == null) {
-                    // Should never happen, the view should throw an exception if no content view is present upon creation
-                    throw new NullPointerException("Content View");
-                }
+                return null;
+        }
+    }
 
-                if (mNoNetworkView != null) mNoNetworkView.setVisibility(View.GONE);
-                if (mLoadingView != null) mLoadingView.setVisibility(View.GONE);
-                if (mErrorView != null) mErrorView.setVisibility(View.GONE);
-                if (mEmptyView != null) mEmptyView.setVisibility(View.GONE);
-                if (mProcessView != null) mProcessView.setVisibility(View.GONE);
-                if (mAnimateViewChanges) {
-                    animateLayoutChange(getView(previousState));
-                } else {
-                    contentViewVisibility(true);
-                }
-                break;
+    /**
+     * 内容视图在指定状态下是否可见
+     */
+    private boolean isContentShownIn(@ViewState int state) {
+        if (isForceShowContent || state == VIEW_STATE_UNKNOWN || state == VIEW_STATE_CONTENT) {
+            return true;
+        }
+        StateEntry entry = mStates.get(state);
+        return entry != null ? (entry.flags & FLAG_SHOW_CONTENT) != 0 : state == VIEW_STATE_PROCESS;
+    }
+
+    /**
+     * 设置生命周期，生命周期低于{@link Lifecycle.State#STARTED}或自身不可见时，
+     * 暂停状态视图中的{@link Animatable}（如加载中的ProgressBar、动画图片）及状态切换动画，恢复后继续执行。
+     * 生命周期销毁时自动移除
+     *
+     * @param owner 生命周期，如Fragment的{@code getViewLifecycleOwner()}，null表示只根据可见性暂停
+     */
+    public void setLifecycleOwner(@Nullable LifecycleOwner owner) {
+        if (mLifecycle != null) {
+            mLifecycle.removeObserver(mLifecycleObserver);
+        }
+        mLifecycle = owner != null ? owner.getLifecycle() : null;
+        isLifecycleStarted = true;
+        if (mLifecycle != null) {
+            // 添加时会同步回调当前状态
+            mLifecycle.addObserver(mLifecycleObserver);
+        }
+        updateAnimationsPaused();
+    }
+
+    /**
+     * 设置是否根据网络连接状态自动切换：断网时切换到{@link #VIEW_STATE_NO_NETWORK}，
+     * 网络恢复后还原断网前的状态。attach时订阅进程内共享的{@link ConnectivityMonitor}，detach时取消订阅。
+     * 未设置无网络视图时不切换。需要应用在AndroidManifest中声明{@code android.permission.ACCESS_NETWORK_STATE}
+     *
+     * @param autoNoNetwork true自动切换
+     */
+    public void setAutoNoNetwork(boolean autoNoNetwork) {
+        if (isAutoNoNetwork == autoNoNetwork) {
+            return;
+        }
+        isAutoNoNetwork = autoNoNetwork;
+        if (!ViewCompat.isAttachedToWindow(this)) {
+            return;
+        }
+        if (autoNoNetwork) {
+            subscribeConnectivity();
+        } else {
+            unsubscribeConnectivity();
+            applyConnectivity(true);
+        }
+    }
+
+    private void subscribeConnectivity() {
+        if (mConnectivityMonitor == null) {
+            mConnectivityMonitor = ConnectivityMonitor.getInstance(getContext());
+        }
+        mConnectivityMonitor.addListener(mConnectivityListener);
+        applyConnectivity(mConnectivityMonitor.isConnected());
+    }
+
+    private void unsubscribeConnectivity() {
+        if (mConnectivityMonitor != null) {
+            mConnectivityMonitor.removeListener(mConnectivityListener);
+        }
+    }
+
+    private void applyConnectivity(boolean connected) {
+        if (!connected) {
+            if (mStateBeforeNoNetwork == NO_PENDING_STATE && mViewState != VIEW_STATE_NO_NETWORK
+                    && hasStateView(VIEW_STATE_NO_NETWORK)) {
+                // 延迟显示的加载中视图也视为断网前的状态
+                int previous = mPendingViewState != NO_PENDING_STATE ? mPendingViewState : mViewState;
+                setViewState(VIEW_STATE_NO_NETWORK);
+                mStateBeforeNoNetwork = previous == VIEW_STATE_UNKNOWN ? VIEW_STATE_CONTENT : previous;
+            }
+        } else if (mStateBeforeNoNetwork != NO_PENDING_STATE) {
+            int previous = mStateBeforeNoNetwork;
+            mStateBeforeNoNetwork = NO_PENDING_STATE;
+            setViewState(previous);
         }
     }
 
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        isVisibilityAggregated = isVisible;
+        updateAnimationsPaused();
+    }
+
     /**
-     * Checks if the given {@link View} is valid for the Content View
-     *
-     * @param view The {@link View} to check
-     * @return
+     * 状态视图中的动画是否已暂停
      */
-    private boolean isValidContentView(View view) {
-        if (mContentView != null && mContentView != view) {
-            return false;
-        }
-        Object tag = view.getTag(R.id.tag_multi_state_view);
-        if (tag == null) {
-            return true;
+    public boolean isAnimationsPaused() {
+        return isAnimationsPaused;
+    }
+
+    private void updateAnimationsPaused() {
+        boolean paused = !isLifecycleStarted || !isVisibilityAggregated;
+        if (paused == isAnimationsPaused) {
+            return;
         }
-        if (tag instanceof String) {
-            String viewTag = (String) tag;
-            if (TextUtils.equals(viewTag, TAG_EMPTY)
-                    || TextUtils.equals(viewTag, TAG_ERROR)
-                    || TextUtils.equals(viewTag, TAG_LOADING)
-                    || TextUtils.equals(viewTag, TAG_PROCESS)
-                    || TextUtils.equals(viewTag, TAG_NO_NETWORK)) {
-                return false;
-            }
+        isAnimationsPaused = paused;
+        if (paused) {
+            pauseAnimations();
+        } else {
+            resumeAnimations();
         }
-        return true;
     }
 
     /**
-     * @param id the id of the view to be found
-     * @return the view of the specified id, null if cannot be found
+     * 暂停切换动画及可见状态视图中正在执行的动画，隐藏的状态视图中的动画由系统停止
      */
-    @Keep
-    protected <T extends View> T findViewTraversal(@IdRes int id) {
-        if (id == getId()) {
-            return (T) this;
+    private void pauseAnimations() {
+        if (mTransition instanceof BaseStateTransition) {
+            ((BaseStateTransition) mTransition).pause();
         }
-        final int len = getChildCount();
-        for (int i = 0; i < len; i++) {
-            View v = getChildAt(i);
-            v = v.findViewById(id);
-            if (v != null) {
-                return (T) v;
+        for (int i = 0, size = mStates.size(); i < size; i++) {
+            View view = mStates.valueAt(i).view;
+            if (view != null && view.getVisibility() != GONE) {
+                pauseAnimatables(view);
             }
         }
-        View view = null;
-        if (mContentView != null) {
-            view = mContentView.findViewById(id);
-        }
-        if (view != null) {
-            return (T) view;
-        }
-        ensureNoNetWorkView();
-        if (mNoNetworkView != null) {
-            view = mNoNetworkView.findViewById(id);
-        }
-        if (view != null) {
-            return (T) view;
-        }
-        ensureEmptyView();
-        if (mEmptyView != null) {
-            view = mEmptyView.findViewById(id);
-        }
-        if (view != null) {
-            return (T) view;
-        }
-        ensureErrorView();
-        if (mErrorView != null) {
-            view = mErrorView.findViewById(id);
+    }
+
+    /**
+     * 恢复切换动画，只重新启动暂停期间仍然可见的状态视图中的动画，
+     * 暂停期间已切换为隐藏的状态视图不再启动
+     */
+    private void resumeAnimations() {
+        if (mTransition instanceof BaseStateTransition) {
+            ((BaseStateTransition) mTransition).resume();
         }
-        if (view != null) {
-            return (T) view;
+        if (!mPausedAnimatables.isEmpty()) {
+            for (int i = 0, size = mStates.size(); i < size; i++) {
+                View view = mStates.valueAt(i).view;
+                if (view != null && view.getVisibility() != GONE) {
+                    resumeAnimatables(view);
+                }
+            }
+            mPausedAnimatables.clear();
         }
-        ensureProcessView();
-        if (mProcessView != null) {
-            view = mProcessView.findViewById(id);
+    }
+
+    private void resumeAnimatables(@NonNull View view) {
+        resumeAnimatable(view.getBackground());
+        if (view instanceof ImageView) {
+            resumeAnimatable(((ImageView) view).getDrawable());
+        } else if (view instanceof ProgressBar) {
+            resumeAnimatable(((ProgressBar) view).getIndeterminateDrawable());
+        } else if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, size = group.getChildCount(); i < size; i++) {
+                resumeAnimatables(group.getChildAt(i));
+            }
         }
-        if (view != null) {
-            return (T) view;
+    }
+
+    private void resumeAnimatable(@Nullable Drawable drawable) {
+        if (drawable instanceof Animatable && mPausedAnimatables.remove(drawable)) {
+            ((Animatable) drawable).start();
         }
-        ensureLoadingView();
-        if (mLoadingView != null) {
-            view = mLoadingView.findViewById(id);
+    }
+
+    private void pauseAnimatables(@NonNull View view) {
+        pauseAnimatable(view.getBackground());
+        if (view instanceof ImageView) {
+            pauseAnimatable(((ImageView) view).getDrawable());
+        } else if (view instanceof ProgressBar) {
+            pauseAnimatable(((ProgressBar) view).getIndeterminateDrawable());
+        } else if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, size = group.getChildCount(); i < size; i++) {
+                pauseAnimatables(group.getChildAt(i));
+            }
         }
-        if (view != null) {
-            return (T) view;
+    }
+
+    private void pauseAnimatable(@Nullable Drawable drawable) {
+        if (drawable instanceof Animatable && ((Animatable) drawable).isRunning()) {
+            ((Animatable) drawable).stop();
+            mPausedAnimatables.add((Animatable) drawable);
         }
-        return null;
     }
 
     /**
-     * Sets the view for the given view state
+     * 设置状态切换统计回调，每次切换在动画结束（没有动画时为切换后第一帧绘制完成）后回调一次，
+     * 包括主线程inflate耗时、layout次数、动画时长及丢帧数；不设置时不进行任何统计
      *
-     * @param view          The {@link View} to use
-     * @param state         The {@link ViewState}to set
-     * @param switchToState If the {@link ViewState} should be switched to
+     * @param listener 统计回调，null表示关闭统计
      */
-    public void setViewForState(View view, @ViewState int state, boolean switchToState) {
-        switch (state) {
-            case VIEW_STATE_LOADING:
-                if (mLoadingView != null) removeView(mLoadingView);
-                mLoadingView = view;
-                mLoadingView.setTag(R.id.tag_multi_state_view, TAG_LOADING);
-                addView(mLoadingView);
-                break;
+    public void setOnTransitionMetricsListener(@Nullable OnTransitionMetricsListener listener) {
+        if (mTransitionTracker != null) {
+            mTransitionTracker.cancel();
+        }
+        mTransitionTracker = listener != null ? new TransitionTracker(this, listener) : null;
+    }
 
-            case VIEW_STATE_EMPTY:
-                if (mEmptyView != null) removeView(mEmptyView);
-                mEmptyView = view;
-                mEmptyView.setTag(R.id.tag_multi_state_view, TAG_EMPTY);
-                addView(mEmptyView);
-                break;
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        if (mTransitionTracker != null) mTransitionTracker.onLayout();
+    }
 
-            case VIEW_STATE_ERROR:
-                if (mErrorView != null) removeView(mErrorView);
-                mErrorView = view;
-                mErrorView.setTag(R.id.tag_multi_state_view, TAG_ERROR);
-                addView(mErrorView);
-                break;
-            case VIEW_STATE_NO_NETWORK:
-                if (mNoNetworkView != null) removeView(mNoNetworkView);
-                mNoNetworkView = view;
-                mNoNetworkView.setTag(R.id.tag_multi_state_view, TAG_NO_NETWORK);
-                addView(mNoNetworkView);
-                break;
-            case VIEW_STATE_PROCESS:
-                if (mProcessView != null) removeView(mProcessView);
-                mProcessView = view;
-                mProcessView.setTag(R.id.tag_multi_state_view, TAG_PROCESS);
-                addView(mProcessView);
-                break;
-            case VIEW_STATE_CONTENT:
-                if (mContentView != null) removeView(mContentView);
-                mContentView = view;
-                addView(mContentView);
-                break;
-            default:
-                break;
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new LayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+        if (lp instanceof LayoutParams) {
+            return new LayoutParams((LayoutParams) lp);
+        } else if (lp instanceof FrameLayout.LayoutParams) {
+            return new LayoutParams((FrameLayout.LayoutParams) lp);
+        } else if (lp instanceof MarginLayoutParams) {
+            return new LayoutParams((MarginLayoutParams) lp);
         }
+        return new LayoutParams(lp);
+    }
 
-        setView(VIEW_STATE_UNKNOWN);
-        if (switchToState) setViewState(state);
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
     }
 
-    /**
-     * Sets the {@link View} for the given {@link ViewState}
-     *
-     * @param view  The {@link View} to use
-     * @param state The {@link ViewState} to set
-     */
-    public void setViewForState(View view, @ViewState int state) {
-        setViewForState(view, state, false);
+    @Override
+    protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+        return p instanceof LayoutParams;
     }
 
     /**
-     * Sets the {@link View} for the given {@link ViewState}
-     *
-     * @param layoutRes     Layout resource id
-     * @param state         The {@link ViewState} to set
-     * @param switchToState If the {@link ViewState} should be switched to
+     * 状态视图使用的布局参数，已经是{@link LayoutParams}时直接复用
      */
-    public void setViewForState(@LayoutRes int layoutRes, @ViewState int state, boolean switchToState) {
-        if (mInflater == null) mInflater = LayoutInflater.from(getContext());
-        View view = mInflater.inflate(layoutRes, this, false);
-        setViewForState(view, state, switchToState);
+    @NonNull
+    private LayoutParams toStateLayoutParams(@Nullable ViewGroup.LayoutParams lp) {
+        if (lp == null) {
+            return generateDefaultLayoutParams();
+        }
+        return lp instanceof LayoutParams ? (LayoutParams) lp : generateLayoutParams(lp);
     }
 
-    /**
-     * Sets the {@link View} for the given {@link ViewState}
-     *
-     * @param layoutRes Layout resource id
-     * @param state     The {@link View} state to set
-     */
-    public void setViewForState(@LayoutRes int layoutRes, @ViewState int state) {
-        setViewForState(layoutRes, state, false);
+    @Nullable
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState ss = new SavedState(super.onSaveInstanceState());
+        // 保存最终要显示的状态：延迟显示的状态、断网自动切换前的状态
+        if (mStateBeforeNoNetwork != NO_PENDING_STATE) {
+            ss.viewState = mStateBeforeNoNetwork;
+        } else if (mPendingViewState != NO_PENDING_STATE) {
+            ss.viewState = mPendingViewState;
+        } else {
+            ss.viewState = mViewState;
+        }
+        return ss;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        restoreViewState(ss.viewState);
     }
 
     /**
-     * Sets whether an animate will occur when changing between {@link ViewState}
-     *
-     * @param animate
+     * 还原保存的状态。未attach时只记录状态，attach时再inflate并显示，
+     * 避免先显示XML中msv_viewState指定的状态再切换
      */
-    public void setAnimateLayoutChanges(boolean animate) {
-        mAnimateViewChanges = animate;
+    private void restoreViewState(@ViewState int state) {
+        if (state == VIEW_STATE_UNKNOWN || (state != VIEW_STATE_CONTENT && !hasStateView(state))) {
+            return;
+        }
+        if (mPendingViewState != NO_PENDING_STATE) {
+            removeCallbacks(mPendingViewStateRunnable);
+            mPendingViewState = NO_PENDING_STATE;
+        }
+        if (ViewCompat.isAttachedToWindow(this)) {
+            applyViewState(state);
+            return;
+        }
+        if (state != mViewState) {
+            mViewState = state;
+            if (state == VIEW_STATE_LOADING) {
+                mLoadingShownTime = SystemClock.uptimeMillis();
+            }
+            dispatchStateChanged(mViewState);
+        }
     }
 
     /**
@@ -893,112 +2454,150 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
     }
 
     /**
-     * Animates the layout changes between {@link ViewState}
+     * 添加状态监听，与{@link #setStateListener(StateListener)}设置的监听互不影响，可以添加多个
      *
-     * @param previousView The view that it was currently on
+     * @param listener The {@link StateListener} that will receive callbacks
      */
-    private void animateLayoutChange(@Nullable final View previousView) {
-        if (previousView == null) {
-            getView(mViewState).setVisibility(View.VISIBLE);
-            return;
+    public void addStateListener(@NonNull StateListener listener) {
+        if (mStateListeners == null) {
+            mStateListeners = new ArrayList<>(2);
+        }
+        if (!mStateListeners.contains(listener)) {
+            mStateListeners.add(listener);
         }
-
-        previousView.setVisibility(View.VISIBLE);
-        ObjectAnimator anim = ObjectAnimator.ofFloat(previousView, "alpha", 1.0f, 0.0f).setDuration(250L);
-        anim.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                previousView.setVisibility(View.GONE);
-                getView(mViewState).setVisibility(View.VISIBLE);
-                ObjectAnimator.ofFloat(getView(mViewState), "alpha", 0.0f, 1.0f).setDuration(250L).start();
-            }
-        });
-        anim.start();
     }
 
-    private void ensureLoadingView() {
-        if (mLoadingView == null && mLoadingViewResId != NO_ID) {
-            mLoadingView = mInflater.inflate(mLoadingViewResId, this, false);
-            mLoadingView.setTag(R.id.tag_multi_state_view, TAG_LOADING);
-            addView(mLoadingView, mLoadingView.getLayoutParams());
-            if (mListener != null) mListener.onStateInflated(VIEW_STATE_LOADING, mLoadingView);
+    /**
+     * 移除通过{@link #addStateListener(StateListener)}添加的监听，可以在回调中移除
+     *
+     * @param listener The {@link StateListener} to remove
+     */
+    public void removeStateListener(@NonNull StateListener listener) {
+        if (mStateListeners != null) {
+            mStateListeners.remove(listener);
+        }
+    }
 
-            if (mViewState != VIEW_STATE_LOADING) {
-                mLoadingView.setVisibility(GONE);
+    private void dispatchStateChanged(@ViewState int viewState) {
+        if (mListener != null) mListener.onStateChanged(viewState);
+        if (mStateListeners != null) {
+            // 倒序遍历，回调中移除监听不影响遍历
+            for (int i = mStateListeners.size() - 1; i >= 0; i--) {
+                if (i < mStateListeners.size()) mStateListeners.get(i).onStateChanged(viewState);
             }
         }
     }
 
-    private void ensureEmptyView() {
-        if (mEmptyView == null && mEmptyViewResId != NO_ID) {
-            mEmptyView = mInflater.inflate(mEmptyViewResId, this, false);
-            mEmptyView.setTag(R.id.tag_multi_state_view, TAG_EMPTY);
-            addView(mEmptyView, mEmptyView.getLayoutParams());
-            if (mListener != null) mListener.onStateInflated(VIEW_STATE_EMPTY, mEmptyView);
-
-            if (mViewState != VIEW_STATE_EMPTY) {
-                mEmptyView.setVisibility(GONE);
+    private void dispatchStateInflated(@ViewState int viewState, @NonNull View view) {
+        if (mListener != null) mListener.onStateInflated(viewState, view);
+        if (mStateListeners != null) {
+            for (int i = mStateListeners.size() - 1; i >= 0; i--) {
+                if (i < mStateListeners.size()) mStateListeners.get(i).onStateInflated(viewState, view);
             }
         }
     }
 
-    private void ensureErrorView() {
-        if (mErrorView == null && mErrorViewResId != NO_ID) {
-            mErrorView = mInflater.inflate(mErrorViewResId, this, false);
-            mErrorView.setTag(R.id.tag_multi_state_view, TAG_ERROR);
-            addView(mErrorView, mErrorView.getLayoutParams());
-            if (mListener != null) mListener.onStateInflated(VIEW_STATE_ERROR, mErrorView);
-
-            if (mViewState != VIEW_STATE_ERROR) {
-                mErrorView.setVisibility(GONE);
+    /**
+     * Animates the layout changes between {@link ViewState}
+     *
+     * @param previousView The view that it was currently on
+     * @param currentView  The view of the current {@link ViewState}
+     */
+    private void animateLayoutChange(@Nullable View previousView, @Nullable View currentView) {
+        View incoming = currentView;
+        if (currentView == null) {
+            // 绘制的状态只执行离开视图的动画
+        } else if (currentView == mContentView) {
+            // 内容视图已可见（如从处理中状态返回）时不再淡入
+            if (currentView.getVisibility() == VISIBLE) {
+                incoming = null;
             }
+            contentViewVisibility(true);
+        } else {
+            currentView.setVisibility(View.VISIBLE);
+        }
+        View outgoing = previousView;
+        if (outgoing == currentView || (outgoing == mContentView && isContentShownIn(mViewState))) {
+            outgoing = null;
         }
+        if (outgoing == null && incoming == null) {
+            return;
+        }
+        if (outgoing != null) {
+            outgoing.setVisibility(View.VISIBLE);
+        }
+        mTransition.start(outgoing, incoming, mTransitionDuration, mTransitionInterpolator, mTransitionListener);
+        if (mTransitionTracker != null) mTransitionTracker.onAnimationStart();
     }
 
+    private final StateTransition.Listener mTransitionListener = new StateTransition.Listener() {
+        @Override
+        public void onTransitionEnd(@Nullable View outgoing, @Nullable View incoming) {
+            if (mTransitionTracker != null) mTransitionTracker.onAnimationEnd();
+            if (outgoing == null || outgoing == peekStateView(mViewState)) {
+                return;
+            }
+            if (outgoing == mContentView) {
+                contentViewVisibility(isContentShownIn(mViewState));
+            } else {
+                outgoing.setVisibility(View.GONE);
+            }
+        }
+    };
+
     @Override
     public boolean onTouchEvent(MotionEvent ev) {
+        if (mSpecRenderer != null && mSpecRenderer.onTouchEvent(ev)) {
+            return true;
+        }
         boolean returnValue = false;
-        MotionEvent event = MotionEvent.obtain(ev);
-        final int action = event.getActionMasked();
+        final int action = ev.getActionMasked();
         if (action == MotionEvent.ACTION_DOWN) {
             mNestedOffsetY = 0;
         }
-        int eventY = (int) event.getY();
-        event.offsetLocation(0, mNestedOffsetY);
+        int eventY = (int) ev.getY();
+        // 直接偏移传入的事件，返回前还原，避免每个事件复制一份MotionEvent
+        float offsetY = mNestedOffsetY;
+        ev.offsetLocation(0, offsetY);
         switch (action) {
             case MotionEvent.ACTION_MOVE:
+                if (!hasNestedScrollingParent()) {
+                    returnValue = super.onTouchEvent(ev);
+                    break;
+                }
                 int deltaY = mLastY - eventY;
                 // NestedPreScroll
                 if (dispatchNestedPreScroll(0, deltaY, mScrollConsumed, mScrollOffset)) {
                     deltaY -= mScrollConsumed[1];
                     mLastY = eventY - mScrollOffset[1];
-                    event.offsetLocation(0, -mScrollOffset[1]);
+                    ev.offsetLocation(0, -mScrollOffset[1]);
+                    offsetY -= mScrollOffset[1];
                     mNestedOffsetY += mScrollOffset[1];
                 }
-                returnValue = super.onTouchEvent(event);
+                returnValue = super.onTouchEvent(ev);
 
                 // NestedScroll
                 if (dispatchNestedScroll(0, mScrollOffset[1], 0, deltaY, mScrollOffset)) {
-                    event.offsetLocation(0, mScrollOffset[1]);
                     mNestedOffsetY += mScrollOffset[1];
                     mLastY -= mScrollOffset[1];
                 }
                 break;
             case MotionEvent.ACTION_DOWN:
-                returnValue = super.onTouchEvent(event);
+                returnValue = super.onTouchEvent(ev);
                 mLastY = eventY;
                 // start NestedScroll
                 startNestedScroll(ViewCompat.SCROLL_AXIS_VERTICAL);
                 break;
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
-                returnValue = super.onTouchEvent(event);
+                returnValue = super.onTouchEvent(ev);
                 // end NestedScroll
                 stopNestedScroll();
                 break;
             default:
                 break;
         }
+        ev.offsetLocation(0, -offsetY);
         return returnValue;
     }
 
@@ -1055,12 +2654,42 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
 
     public void setScrollViewResId(int mScrollViewResId) {
         this.mScrollViewResId = mScrollViewResId;
+        invalidateScrollView();
+    }
+
+    /**
+     * 返回{@link #mScrollViewResId}对应的视图，结果会被缓存直到布局层级变化，不会触发inflate
+     */
+    @Nullable
+    private View getScrollView() {
+        if (!isScrollViewResolved) {
+            mScrollView = mScrollViewResId != NO_ID ? findViewInChildren(mScrollViewResId) : null;
+            isScrollViewResolved = true;
+        }
+        return mScrollView;
+    }
+
+    void invalidateScrollView() {
+        mScrollView = null;
+        isScrollViewResolved = false;
+    }
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        invalidateScrollView();
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        invalidateScrollView();
     }
 
     @Override
     public boolean canScrollHorizontally(int direction) {
         if (mScrollViewResId != NO_ID) {
-            View scrollView = findViewById(mScrollViewResId);
+            View scrollView = getScrollView();
             if (scrollView != null) {
                 return scrollView.canScrollHorizontally(direction);
             }
@@ -1071,7 +2700,7 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
     @Override
     public boolean canScrollVertically(int direction) {
         if (mScrollViewResId != NO_ID) {
-            View scrollView = findViewById(mScrollViewResId);
+            View scrollView = getScrollView();
             if (scrollView != null) {
                 return scrollView.canScrollVertically(direction);
             }
@@ -1171,6 +2800,181 @@ public class MultiStateView extends FrameLayout implements NestedScrollingParent
         if (btnRetry != null) {
             btnRetry.setOnClickListener(listener);
         }
+        // 状态视图可能被释放或归还到缓存池后重新创建，记录下来在创建时重新绑定
+        if (mPendingClickListeners == null) {
+            mPendingClickListeners = new SparseArray<>();
+        }
+        mPendingClickListeners.put(viewId, listener);
+    }
+
+    /**
+     * 将{@link #setClickListener(int, OnClickListener)}中记录的点击事件绑定到新加入的状态视图
+     *
+     * @param stateView 新inflate或设置的状态视图
+     */
+    private void bindPendingClickListeners(View stateView) {
+        if (mPendingClickListeners == null) {
+            return;
+        }
+        for (int i = 0, size = mPendingClickListeners.size(); i < size; i++) {
+            View target = stateView.findViewById(mPendingClickListeners.keyAt(i));
+            if (target != null) {
+                target.setOnClickListener(mPendingClickListeners.valueAt(i));
+            }
+        }
+    }
+
+    /**
+     * MultiStateView子视图的布局参数，记录子视图对应的状态，
+     * XML中可通过{@code app:layout_msvState}指定
+     */
+    public static class LayoutParams extends FrameLayout.LayoutParams {
+        /**
+         * 子视图对应的状态，默认{@link #VIEW_STATE_CONTENT}
+         */
+        @ViewState
+        public int state = VIEW_STATE_CONTENT;
+
+        public LayoutParams(@NonNull Context c, @Nullable AttributeSet attrs) {
+            super(c, attrs);
+            TypedArray a = c.obtainStyledAttributes(attrs, R.styleable.MultiStateView_Layout);
+            state = a.getInt(R.styleable.MultiStateView_Layout_layout_msvState, VIEW_STATE_CONTENT);
+            a.recycle();
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(int width, int height, int gravity) {
+            super(width, height, gravity);
+        }
+
+        public LayoutParams(@NonNull ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(@NonNull MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(@NonNull FrameLayout.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(@NonNull LayoutParams source) {
+            super(source);
+            state = source.state;
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+        int viewState = VIEW_STATE_UNKNOWN;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel source) {
+            super(source);
+            viewState = source.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(viewState);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    /**
+     * 状态的布局、视图及标记
+     */
+    private static final class StateEntry {
+        @ViewState
+        final int state;
+        @LayoutRes
+        int layoutResId = NO_ID;
+        @Nullable
+        View view;
+        /**
+         * XML中声明的状态视图占位，inflate后置空
+         */
+        @Nullable
+        ViewStub stub;
+        int flags;
+        /**
+         * 最近一次离开该状态的时间
+         */
+        long hiddenTime;
+        /**
+         * 没有布局和视图时绘制的状态
+         */
+        @Nullable
+        StateSpec spec;
+        /**
+         * 通过{@link #setStateMessage(int, CharSequence)}设置的文字
+         */
+        @Nullable
+        CharSequence message;
+        @Nullable
+        StateBinder<?> binder;
+        /**
+         * {@link StateBinder#onCreateViewHolder(View)}创建的ViewHolder，状态视图变化时重新创建
+         */
+        @Nullable
+        Object holder;
+        /**
+         * {@link #setViewState(int, Object)}传入的数据
+         */
+        @Nullable
+        Object payload;
+        /**
+         * 最近一次绑定到{@link #holder}的数据
+         */
+        @Nullable
+        Object boundPayload;
+
+        StateEntry(@ViewState int state) {
+            this.state = state;
+        }
+
+        void setFlag(int flag, boolean enabled) {
+            flags = enabled ? flags | flag : flags & ~flag;
+        }
+    }
+
+    /**
+     * 隐藏的状态视图被释放时回调，见{@link #setTrimMemoryLevel(int)}、{@link #setStateViewIdleTimeout(long)}
+     */
+    public interface OnStateViewsTrimmedListener {
+        /**
+         * @param viewCount       释放的视图数量，包括状态视图中的所有子视图
+         * @param bitmapByteCount 估算释放的Bitmap内存（字节）
+         */
+        void onStateViewsTrimmed(int viewCount, long bitmapByteCount);
+    }
+
+    /**
+     * 状态切换统计回调，见{@link #setOnTransitionMetricsListener(OnTransitionMetricsListener)}
+     */
+    public interface OnTransitionMetricsListener {
+        /**
+         * @param metrics 本次切换的统计数据，只在回调期间有效
+         */
+        void onTransitionMetrics(@NonNull TransitionMetrics metrics);
     }
 
     public interface StateListener {
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.os.Process;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 在后台线程通过{@link PrecomputedTextCompat}预先计算状态文字的布局，
+ * 结果按文字及{@link PrecomputedTextCompat.Params}缓存，所有{@link MultiStateView}共享
+ */
+final class PrecomputedTextCache {
+    private static final int MAX_SIZE = 32;
+    private static final LruCache<Key, PrecomputedTextCompat> CACHE = new LruCache<>(MAX_SIZE);
+    /**
+     * 正在计算的文字，避免重复提交
+     */
+    private static final Set<Key> PENDING = Collections.newSetFromMap(new ConcurrentHashMap<Key, Boolean>());
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "msv-precompute-text");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private PrecomputedTextCache() {
+    }
+
+    /**
+     * 返回已计算完成的文字，未完成时返回null
+     */
+    @Nullable
+    static PrecomputedTextCompat get(@NonNull CharSequence text, @NonNull PrecomputedTextCompat.Params params) {
+        return CACHE.get(new Key(text, params));
+    }
+
+    /**
+     * 在后台线程计算文字布局，已缓存或正在计算时忽略
+     */
+    static void precompute(@NonNull CharSequence text, @NonNull PrecomputedTextCompat.Params params) {
+        final Key key = new Key(text, params);
+        if (CACHE.get(key) != null || !PENDING.add(key)) {
+            return;
+        }
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    CACHE.put(key, PrecomputedTextCompat.create(key.text, key.params));
+                } finally {
+                    PENDING.remove(key);
+                }
+            }
+        });
+    }
+
+    static void clear() {
+        CACHE.evictAll();
+    }
+
+    private static final class Key {
+        final CharSequence text;
+        final PrecomputedTextCompat.Params params;
+
+        Key(CharSequence text, PrecomputedTextCompat.Params params) {
+            this.text = text;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return text.equals(key.text) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + params.hashCode();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 水平滑动切换动画，离开的视图向左滑出，进入的视图从右侧滑入
+ */
+public class SlideTransition extends BaseStateTransition {
+    private float mDistance;
+
+    @Override
+    protected void onPrepare(@Nullable View outgoing, @Nullable View incoming) {
+        View reference = outgoing != null ? outgoing : incoming;
+        mDistance = reference.getParent() instanceof View
+                ? ((View) reference.getParent()).getWidth() : reference.getWidth();
+        if (outgoing != null) View.TRANSLATION_X.set(outgoing, 0f);
+        if (incoming != null) View.TRANSLATION_X.set(incoming, mDistance);
+    }
+
+    @Override
+    protected void onUpdate(@Nullable View outgoing, @Nullable View incoming, float fraction) {
+        if (outgoing != null) View.TRANSLATION_X.set(outgoing, -mDistance * fraction);
+        if (incoming != null) View.TRANSLATION_X.set(incoming, mDistance * (1f - fraction));
+    }
+
+    @Override
+    protected void onReset(@Nullable View outgoing, @Nullable View incoming) {
+        if (outgoing != null) View.TRANSLATION_X.set(outgoing, 0f);
+        if (incoming != null) View.TRANSLATION_X.set(incoming, 0f);
+    }
+}
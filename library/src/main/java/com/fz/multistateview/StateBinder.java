@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 状态视图数据绑定，通过{@link MultiStateView#setStateBinder(int, StateBinder)}设置。
+ * 每个状态视图只创建一次ViewHolder缓存子视图，每次显示该状态时绑定
+ * {@link MultiStateView#setViewState(int, Object)}传入的数据，与上次绑定的数据相同（equals）时不再绑定
+ *
+ * @param <VH> 缓存状态视图子视图的ViewHolder
+ */
+public interface StateBinder<VH> {
+    /**
+     * 状态视图创建（inflate或设置）后调用一次，在此查找并缓存子视图
+     *
+     * @param view 状态视图
+     */
+    @NonNull
+    VH onCreateViewHolder(@NonNull View view);
+
+    /**
+     * 将数据绑定到状态视图
+     *
+     * @param holder  {@link #onCreateViewHolder(View)}创建的ViewHolder
+     * @param payload {@link MultiStateView#setViewState(int, Object)}传入的数据
+     */
+    void onBindViewHolder(@NonNull VH holder, @Nullable Object payload);
+}
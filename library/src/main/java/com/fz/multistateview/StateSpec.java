@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+import androidx.annotation.Px;
+
+/**
+ * 由{@link MultiStateView}直接绘制的简单状态：图标、一段文字和一个按钮，不创建任何子视图。
+ * 通过{@link MultiStateView#setStateSpec(int, StateSpec)}或{@link MultiStateView#registerState(int, StateSpec, boolean)}设置，
+ * 状态同时设置了布局或视图时优先使用布局或视图。修改属性后需要重新设置才会生效
+ */
+public class StateSpec {
+    @Nullable
+    private Drawable mIcon;
+    @DrawableRes
+    private int mIconResId;
+    @Nullable
+    private CharSequence mText;
+    @Nullable
+    private CharSequence mButtonText;
+    @Nullable
+    private View.OnClickListener mOnButtonClickListener;
+    @ColorInt
+    private int mTextColor;
+    @Px
+    private float mTextSize;
+
+    public StateSpec() {
+    }
+
+    public StateSpec(@DrawableRes int iconResId, @Nullable CharSequence text) {
+        mIconResId = iconResId;
+        mText = text;
+    }
+
+    @Nullable
+    public Drawable getIcon() {
+        return mIcon;
+    }
+
+    public void setIcon(@Nullable Drawable icon) {
+        mIcon = icon;
+        mIconResId = 0;
+    }
+
+    @DrawableRes
+    public int getIconResId() {
+        return mIconResId;
+    }
+
+    /**
+     * 设置图标资源id，在首次绘制时加载
+     */
+    public void setIconResId(@DrawableRes int iconResId) {
+        mIconResId = iconResId;
+        mIcon = null;
+    }
+
+    @Nullable
+    public CharSequence getText() {
+        return mText;
+    }
+
+    public void setText(@Nullable CharSequence text) {
+        mText = text;
+    }
+
+    @Nullable
+    public CharSequence getButtonText() {
+        return mButtonText;
+    }
+
+    /**
+     * 设置按钮文字，null表示不显示按钮
+     */
+    public void setButtonText(@Nullable CharSequence buttonText) {
+        mButtonText = buttonText;
+    }
+
+    @Nullable
+    public View.OnClickListener getOnButtonClickListener() {
+        return mOnButtonClickListener;
+    }
+
+    /**
+     * 设置按钮点击事件，回调参数为{@link MultiStateView}
+     */
+    public void setOnButtonClickListener(@Nullable View.OnClickListener listener) {
+        mOnButtonClickListener = listener;
+    }
+
+    @ColorInt
+    public int getTextColor() {
+        return mTextColor;
+    }
+
+    /**
+     * 设置文字颜色，0表示使用默认颜色
+     */
+    public void setTextColor(@ColorInt int textColor) {
+        mTextColor = textColor;
+    }
+
+    @Px
+    public float getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * 设置文字大小（像素），0表示使用默认大小14sp
+     */
+    public void setTextSize(@Px float textSize) {
+        mTextSize = textSize;
+    }
+
+    boolean hasButton() {
+        return mButtonText != null && mButtonText.length() > 0;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Bundle;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.AccessibilityDelegateCompat;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import java.util.List;
+
+/**
+ * 在{@link MultiStateView#dispatchDraw(Canvas)}中绘制{@link StateSpec}，
+ * 只有按钮一个点击区域，无障碍节点通过{@link ExploreByTouchHelper}提供。
+ * 只在绘制{@link StateSpec}期间替换宿主的AccessibilityDelegate，停止绘制后恢复原来的delegate
+ */
+final class StateSpecRenderer {
+    private static final int VIRTUAL_ID_MESSAGE = 0;
+    private static final int VIRTUAL_ID_BUTTON = 1;
+    private static final int DEFAULT_TEXT_COLOR = 0x8A000000;
+    private static final float DEFAULT_TEXT_SIZE_SP = 14f;
+    private final MultiStateView mHost;
+    private final TextPaint mTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint mButtonTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mButtonPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect mIconBounds = new Rect();
+    private final Rect mTextBounds = new Rect();
+    private final Rect mButtonBounds = new Rect();
+    private final RectF mButtonRect = new RectF();
+    private final AccessibilityHelper mAccessibilityHelper;
+    private final int mSpacing;
+    private final int mButtonPaddingHorizontal;
+    private final int mButtonPaddingVertical;
+    private final float mButtonCornerRadius;
+    private final int mAccentColor;
+    @Nullable
+    private StateSpec mSpec;
+    @Nullable
+    private Drawable mIcon;
+    @Nullable
+    private StaticLayout mTextLayout;
+    /**
+     * 上次计算布局时的绘制区域，变化时重新计算
+     */
+    private final Rect mLayoutArea = new Rect();
+    private boolean isLayoutValid;
+    /**
+     * 安装{@link #mAccessibilityHelper}之前宿主设置的delegate
+     */
+    @Nullable
+    private AccessibilityDelegateCompat mPreviousDelegate;
+    private boolean isHelperInstalled;
+    private boolean isTrackingButton;
+    private boolean isButtonPressed;
+
+    StateSpecRenderer(@NonNull MultiStateView host) {
+        mHost = host;
+        Context context = host.getContext();
+        float density = context.getResources().getDisplayMetrics().density;
+        mSpacing = Math.round(16 * density);
+        mButtonPaddingHorizontal = Math.round(24 * density);
+        mButtonPaddingVertical = Math.round(10 * density);
+        mButtonCornerRadius = 4 * density;
+        TypedArray a = context.obtainStyledAttributes(new int[]{android.R.attr.colorAccent});
+        mAccentColor = a.getColor(0, Color.DKGRAY);
+        a.recycle();
+        mButtonPaint.setStrokeWidth(Math.max(1f, density));
+        mButtonTextPaint.setTextAlign(Paint.Align.CENTER);
+        mButtonTextPaint.setColor(mAccentColor);
+        mAccessibilityHelper = new AccessibilityHelper(host);
+    }
+
+    @Nullable
+    StateSpec getSpec() {
+        return mSpec;
+    }
+
+    void setSpec(@Nullable StateSpec spec) {
+        mSpec = spec;
+        mIcon = null;
+        mTextLayout = null;
+        isLayoutValid = false;
+        isTrackingButton = false;
+        isButtonPressed = false;
+        if (spec != null) {
+            mIcon = spec.getIcon();
+            if (mIcon == null && spec.getIconResId() != 0) {
+                mIcon = mHost.getContext().getDrawable(spec.getIconResId());
+            }
+            float textSize = spec.getTextSize() > 0 ? spec.getTextSize() : TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                    DEFAULT_TEXT_SIZE_SP, mHost.getResources().getDisplayMetrics());
+            mTextPaint.setTextSize(textSize);
+            mTextPaint.setColor(spec.getTextColor() != 0 ? spec.getTextColor() : DEFAULT_TEXT_COLOR);
+            mButtonTextPaint.setTextSize(textSize);
+        }
+        if (spec != null && !isHelperInstalled) {
+            mPreviousDelegate = ViewCompat.getAccessibilityDelegate(mHost);
+            ViewCompat.setAccessibilityDelegate(mHost, mAccessibilityHelper);
+            isHelperInstalled = true;
+        }
+        mAccessibilityHelper.invalidateRoot();
+        if (spec == null && isHelperInstalled) {
+            ViewCompat.setAccessibilityDelegate(mHost, mPreviousDelegate);
+            mPreviousDelegate = null;
+            isHelperInstalled = false;
+        }
+    }
+
+    /**
+     * 根据当前大小计算图标、文字及按钮的位置，整体居中
+     */
+    private void ensureLayout() {
+        final int left = mHost.getPaddingLeft();
+        final int top = mHost.getPaddingTop();
+        final int right = mHost.getWidth() - mHost.getPaddingRight();
+        final int bottom = mHost.getHeight() - mHost.getPaddingBottom();
+        if (isLayoutValid && mLayoutArea.left == left && mLayoutArea.top == top
+                && mLayoutArea.right == right && mLayoutArea.bottom == bottom) {
+            return;
+        }
+        isLayoutValid = true;
+        mLayoutArea.set(left, top, right, bottom);
+        mIconBounds.setEmpty();
+        mTextBounds.setEmpty();
+        mButtonBounds.setEmpty();
+        if (mSpec == null) {
+            return;
+        }
+        final int textWidth = Math.max(0, right - left - 2 * mSpacing);
+        final CharSequence text = mSpec.getText();
+        mTextLayout = TextUtils.isEmpty(text) ? null : createLayout(text, mTextPaint, textWidth);
+        final int iconWidth = mIcon != null ? Math.max(0, mIcon.getIntrinsicWidth()) : 0;
+        final int iconHeight = mIcon != null ? Math.max(0, mIcon.getIntrinsicHeight()) : 0;
+        final int textHeight = mTextLayout != null ? mTextLayout.getHeight() : 0;
+        int buttonWidth = 0;
+        int buttonHeight = 0;
+        if (mSpec.hasButton()) {
+            Paint.FontMetricsInt fm = mButtonTextPaint.getFontMetricsInt();
+            buttonWidth = (int) Math.ceil(mButtonTextPaint.measureText(mSpec.getButtonText(), 0,
+                    mSpec.getButtonText().length())) + 2 * mButtonPaddingHorizontal;
+            buttonHeight = fm.descent - fm.ascent + 2 * mButtonPaddingVertical;
+        }
+        int totalHeight = iconHeight + textHeight + buttonHeight;
+        if (iconHeight > 0 && (textHeight > 0 || buttonHeight > 0)) totalHeight += mSpacing;
+        if (textHeight > 0 && buttonHeight > 0) totalHeight += mSpacing;
+
+        final int centerX = (left + right) / 2;
+        int y = (top + bottom - totalHeight) / 2;
+        if (iconHeight > 0) {
+            mIconBounds.set(centerX - iconWidth / 2, y, centerX - iconWidth / 2 + iconWidth, y + iconHeight);
+            y += iconHeight + mSpacing;
+        }
+        if (textHeight > 0) {
+            mTextBounds.set(left + mSpacing, y, left + mSpacing + textWidth, y + textHeight);
+            y += textHeight + mSpacing;
+        }
+        if (buttonHeight > 0) {
+            mButtonBounds.set(centerX - buttonWidth / 2, y, centerX - buttonWidth / 2 + buttonWidth, y + buttonHeight);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static StaticLayout createLayout(@NonNull CharSequence text, @NonNull TextPaint paint, int width) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                    .setAlignment(Layout.Alignment.ALIGN_CENTER)
+                    .build();
+        }
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_CENTER, 1f, 0f, true);
+    }
+
+    void draw(@NonNull Canvas canvas) {
+        if (mSpec == null) {
+            return;
+        }
+        ensureLayout();
+        if (mIcon != null && !mIconBounds.isEmpty()) {
+            mIcon.setBounds(mIconBounds);
+            mIcon.draw(canvas);
+        }
+        if (mTextLayout != null) {
+            int saveCount = canvas.save();
+            canvas.translate(mTextBounds.left, mTextBounds.top);
+            mTextLayout.draw(canvas);
+            canvas.restoreToCount(saveCount);
+        }
+        if (!mButtonBounds.isEmpty()) {
+            mButtonRect.set(mButtonBounds);
+            final float inset = mButtonPaint.getStrokeWidth() / 2;
+            mButtonRect.inset(inset, inset);
+            mButtonPaint.setColor(mAccentColor);
+            if (isButtonPressed) {
+                mButtonPaint.setStyle(Paint.Style.FILL);
+                mButtonPaint.setAlpha(0x1F);
+                canvas.drawRoundRect(mButtonRect, mButtonCornerRadius, mButtonCornerRadius, mButtonPaint);
+                mButtonPaint.setAlpha(0xFF);
+            }
+            mButtonPaint.setStyle(Paint.Style.STROKE);
+            canvas.drawRoundRect(mButtonRect, mButtonCornerRadius, mButtonCornerRadius, mButtonPaint);
+            Paint.FontMetricsInt fm = mButtonTextPaint.getFontMetricsInt();
+            CharSequence buttonText = mSpec.getButtonText();
+            canvas.drawText(buttonText, 0, buttonText.length(), mButtonBounds.exactCenterX(),
+                    mButtonBounds.top + mButtonPaddingVertical - fm.ascent, mButtonTextPaint);
+        }
+    }
+
+    /**
+     * 处理按钮的点击
+     *
+     * @return true表示事件已被按钮消费
+     */
+    boolean onTouchEvent(@NonNull MotionEvent ev) {
+        if (mSpec == null || !mSpec.hasButton()) {
+            return false;
+        }
+        ensureLayout();
+        final boolean inButton = mButtonBounds.contains((int) ev.getX(), (int) ev.getY());
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                isTrackingButton = inButton;
+                setButtonPressed(inButton);
+                return inButton;
+            case MotionEvent.ACTION_MOVE:
+                if (isTrackingButton) {
+                    setButtonPressed(inButton);
+                }
+                return isTrackingButton;
+            case MotionEvent.ACTION_UP:
+                if (!isTrackingButton) {
+                    return false;
+                }
+                isTrackingButton = false;
+                if (isButtonPressed) {
+                    setButtonPressed(false);
+                    performButtonClick();
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                boolean tracking = isTrackingButton;
+                isTrackingButton = false;
+                setButtonPressed(false);
+                return tracking;
+            default:
+                return isTrackingButton;
+        }
+    }
+
+    private void setButtonPressed(boolean pressed) {
+        if (isButtonPressed != pressed) {
+            isButtonPressed = pressed;
+            mHost.invalidate(mButtonBounds);
+        }
+    }
+
+    private boolean performButtonClick() {
+        View.OnClickListener listener = mSpec != null ? mSpec.getOnButtonClickListener() : null;
+        if (listener == null) {
+            return false;
+        }
+        mHost.playSoundEffect(SoundEffectConstants.CLICK);
+        listener.onClick(mHost);
+        mAccessibilityHelper.sendEventForVirtualView(VIRTUAL_ID_BUTTON, AccessibilityEvent.TYPE_VIEW_CLICKED);
+        return true;
+    }
+
+    boolean dispatchHoverEvent(@NonNull MotionEvent event) {
+        return mSpec != null && mAccessibilityHelper.dispatchHoverEvent(event);
+    }
+
+    private final class AccessibilityHelper extends ExploreByTouchHelper {
+
+        AccessibilityHelper(@NonNull View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            if (mSpec == null) {
+                return INVALID_ID;
+            }
+            ensureLayout();
+            if (mButtonBounds.contains((int) x, (int) y)) {
+                return VIRTUAL_ID_BUTTON;
+            }
+            if (!TextUtils.isEmpty(mSpec.getText())
+                    && (mTextBounds.contains((int) x, (int) y) || mIconBounds.contains((int) x, (int) y))) {
+                return VIRTUAL_ID_MESSAGE;
+            }
+            return INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (mSpec == null) {
+                return;
+            }
+            if (!TextUtils.isEmpty(mSpec.getText())) {
+                virtualViewIds.add(VIRTUAL_ID_MESSAGE);
+            }
+            if (mSpec.hasButton()) {
+                virtualViewIds.add(VIRTUAL_ID_BUTTON);
+            }
+        }
+
+        @Override
+        protected void onPopulateEventForVirtualView(int virtualViewId, @NonNull AccessibilityEvent event) {
+            CharSequence text = getVirtualViewText(virtualViewId);
+            if (text != null) {
+                event.getText().add(text);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            ensureLayout();
+            node.setText(getVirtualViewText(virtualViewId));
+            if (virtualViewId == VIRTUAL_ID_BUTTON) {
+                node.setClassName(Button.class.getName());
+                node.setClickable(true);
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+                node.setBoundsInParent(mButtonBounds);
+            } else {
+                node.setClassName(TextView.class.getName());
+                node.setBoundsInParent(mTextBounds.isEmpty() ? mIconBounds : mTextBounds);
+            }
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (virtualViewId == VIRTUAL_ID_BUTTON && action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                return performButtonClick();
+            }
+            return false;
+        }
+
+        @Nullable
+        private CharSequence getVirtualViewText(int virtualViewId) {
+            if (mSpec == null) {
+                return null;
+            }
+            return virtualViewId == VIRTUAL_ID_BUTTON ? mSpec.getButtonText() : mSpec.getText();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.animation.TimeInterpolator;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * {@link MultiStateView}状态切换动画，内置{@link CrossFadeTransition}及{@link SlideTransition}，
+ * 也可自定义实现。一个实例只能用于一个{@link MultiStateView}
+ */
+public interface StateTransition {
+    /**
+     * 开始执行切换动画，调用前两个视图均已设置为{@link View#VISIBLE}。
+     * 视图在新状态下保持可见时（如{@link MultiStateView#VIEW_STATE_PROCESS}下的内容视图）对应参数为null，
+     * 两个参数不会同时为null
+     *
+     * @param outgoing     离开的视图
+     * @param incoming     进入的视图
+     * @param duration     动画时长（毫秒）
+     * @param interpolator 插值器，null表示使用默认插值器
+     * @param listener     动画结束或被取消时必须回调
+     */
+    void start(@Nullable View outgoing, @Nullable View incoming, long duration,
+               @Nullable TimeInterpolator interpolator, @NonNull Listener listener);
+
+    /**
+     * 取消正在执行的动画，需立即恢复视图属性并回调{@link Listener#onTransitionEnd(View, View)}
+     */
+    void cancel();
+
+    /**
+     * 是否正在执行动画
+     */
+    boolean isRunning();
+
+    interface Listener {
+        /**
+         * 动画结束或被取消
+         *
+         * @param outgoing 离开的视图
+         * @param incoming 进入的视图
+         */
+        void onTransitionEnd(@Nullable View outgoing, @Nullable View incoming);
+    }
+}
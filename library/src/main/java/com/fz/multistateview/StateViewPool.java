@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.util.SparseIntArray;
+import android.view.View;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 多个{@link MultiStateView}共享的状态视图缓存池，按布局资源id和主题区分。
+ * 通过{@link MultiStateView#setStateViewPool(StateViewPool)}设置后，状态视图优先从缓存池中获取，
+ * {@link MultiStateView}从窗口分离时（或离开状态时，见{@link MultiStateView#setRecycleStateViewOnExit(boolean)}）
+ * 归还到缓存池。
+ * <p>
+ * 缓存的视图持有inflate时的{@link Context}，缓存池的生命周期不应超过对应的Activity，
+ * 在Activity销毁时应调用{@link #clear()}。只能在主线程中使用。
+ */
+public class StateViewPool {
+    private static final int DEFAULT_MAX_SIZE = 16;
+    private static final int DEFAULT_MAX_PER_KEY = 2;
+
+    /**
+     * 视图复用前重置状态
+     */
+    public interface ViewResetter {
+        /**
+         * 视图从缓存池中取出，即将被复用
+         *
+         * @param layoutResId 视图的布局资源id
+         * @param view        复用的视图
+         */
+        void onResetView(@LayoutRes int layoutResId, @NonNull View view);
+    }
+
+    /**
+     * 按访问顺序排列，最久未使用的在最前面
+     */
+    private final LinkedHashMap<Key, ArrayDeque<View>> mScrap = new LinkedHashMap<>(8, 0.75f, true);
+    private final SparseIntArray mMaxPerKey = new SparseIntArray();
+    private int mDefaultMaxPerKey = DEFAULT_MAX_PER_KEY;
+    private int mMaxSize;
+    private int mSize;
+    @Nullable
+    private ViewResetter mViewResetter;
+
+    public StateViewPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize 缓存池中最多缓存的视图数量，超过时按最久未使用淘汰
+     */
+    public StateViewPool(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * 设置缓存池中最多缓存的视图数量，超过时按最久未使用淘汰
+     *
+     * @param maxSize 最多缓存的视图数量
+     */
+    public void setMaxSize(int maxSize) {
+        mMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    /**
+     * 设置每个布局默认最多缓存的视图数量，默认2个
+     *
+     * @param max 每个布局最多缓存的视图数量
+     */
+    public void setDefaultMaxRecycledViews(int max) {
+        mDefaultMaxPerKey = max;
+    }
+
+    /**
+     * 设置指定布局最多缓存的视图数量
+     *
+     * @param layoutResId 布局资源id
+     * @param max         最多缓存的视图数量
+     */
+    public void setMaxRecycledViews(@LayoutRes int layoutResId, int max) {
+        mMaxPerKey.put(layoutResId, max);
+        for (Map.Entry<Key, ArrayDeque<View>> entry : mScrap.entrySet()) {
+            if (entry.getKey().layoutResId == layoutResId) {
+                ArrayDeque<View> views = entry.getValue();
+                while (views.size() > max) {
+                    views.pollFirst();
+                    mSize--;
+                }
+            }
+        }
+        removeEmptyKeys();
+    }
+
+    public void setViewResetter(@Nullable ViewResetter viewResetter) {
+        mViewResetter = viewResetter;
+    }
+
+    /**
+     * 从缓存池中取出视图
+     *
+     * @param layoutResId 布局资源id
+     * @param context     需要使用该视图的{@link Context}，用于匹配主题
+     * @return 缓存的视图，没有可复用的视图时返回null
+     */
+    @Nullable
+    public View acquire(@LayoutRes int layoutResId, @NonNull Context context) {
+        Key key = new Key(layoutResId, context.getTheme());
+        ArrayDeque<View> views = mScrap.get(key);
+        View view = views != null ? views.pollLast() : null;
+        if (view == null) {
+            return null;
+        }
+        mSize--;
+        if (views.isEmpty()) {
+            // 不保留空队列，避免持有主题引用
+            mScrap.remove(key);
+        }
+        if (mViewResetter != null) {
+            mViewResetter.onResetView(layoutResId, view);
+        }
+        return view;
+    }
+
+    /**
+     * 将视图归还到缓存池，视图必须已从父布局中移除
+     *
+     * @param layoutResId 视图的布局资源id
+     * @param view        需要归还的视图
+     */
+    public void release(@LayoutRes int layoutResId, @NonNull View view) {
+        if (view.getParent() != null) {
+            throw new IllegalArgumentException("View must be removed from its parent before release");
+        }
+        int max = mMaxPerKey.get(layoutResId, mDefaultMaxPerKey);
+        if (max <= 0 || mMaxSize <= 0) {
+            return;
+        }
+        Key key = new Key(layoutResId, view.getContext().getTheme());
+        ArrayDeque<View> views = mScrap.get(key);
+        if (views == null) {
+            views = new ArrayDeque<>(max);
+            mScrap.put(key, views);
+        }
+        if (views.size() >= max) {
+            views.pollFirst();
+            mSize--;
+        }
+        views.addLast(view);
+        mSize++;
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * 当前缓存的视图数量
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 缓存的布局及主题组合数量
+     */
+    @VisibleForTesting
+    int keyCount() {
+        return mScrap.size();
+    }
+
+    private void removeEmptyKeys() {
+        Iterator<ArrayDeque<View>> iterator = mScrap.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 清空缓存池
+     */
+    public void clear() {
+        mScrap.clear();
+        mSize = 0;
+    }
+
+    private void trimToSize(int maxSize) {
+        Iterator<ArrayDeque<View>> iterator = mScrap.values().iterator();
+        while (mSize > maxSize && iterator.hasNext()) {
+            ArrayDeque<View> views = iterator.next();
+            while (mSize > maxSize && !views.isEmpty()) {
+                views.pollFirst();
+                mSize--;
+            }
+            if (views.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Key {
+        final int layoutResId;
+        final Resources.Theme theme;
+
+        Key(int layoutResId, Resources.Theme theme) {
+            this.layoutResId = layoutResId;
+            this.theme = theme;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return layoutResId == key.layoutResId && theme == key.theme;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * layoutResId + System.identityHashCode(theme);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+/**
+ * 一次状态切换的统计数据，见{@link MultiStateView#setOnTransitionMetricsListener(MultiStateView.OnTransitionMetricsListener)}。
+ * 同一个{@link MultiStateView}复用同一个实例，只在回调期间有效，需要保存时应复制其中的数据
+ */
+public final class TransitionMetrics {
+    int fromState;
+    int toState;
+    long inflateTimeNanos;
+    int layoutPassCount;
+    long animationDurationNanos;
+    int droppedFrameCount;
+    long totalTimeNanos;
+
+    TransitionMetrics() {
+    }
+
+    void reset(int fromState, int toState) {
+        this.fromState = fromState;
+        this.toState = toState;
+        inflateTimeNanos = 0;
+        layoutPassCount = 0;
+        animationDurationNanos = 0;
+        droppedFrameCount = 0;
+        totalTimeNanos = 0;
+    }
+
+    /**
+     * 切换前的状态
+     */
+    public int getFromState() {
+        return fromState;
+    }
+
+    /**
+     * 切换后的状态
+     */
+    public int getToState() {
+        return toState;
+    }
+
+    /**
+     * 主线程inflate状态布局的耗时（纳秒），后台inflate及从缓存池中获取的视图不计入
+     */
+    public long getInflateTimeNanos() {
+        return inflateTimeNanos;
+    }
+
+    /**
+     * 切换后{@link MultiStateView}执行layout的次数
+     */
+    public int getLayoutPassCount() {
+        return layoutPassCount;
+    }
+
+    /**
+     * 切换动画的时长（纳秒），没有动画时为0
+     */
+    public long getAnimationDurationNanos() {
+        return animationDurationNanos;
+    }
+
+    /**
+     * 切换期间（到动画结束或切换后第一帧绘制完成）丢失的帧数
+     */
+    public int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * 从开始切换到统计结束的总耗时（纳秒）
+     */
+    public long getTotalTimeNanos() {
+        return totalTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "TransitionMetrics{" +
+                "fromState=" + fromState +
+                ", toState=" + toState +
+                ", inflateTimeNanos=" + inflateTimeNanos +
+                ", layoutPassCount=" + layoutPassCount +
+                ", animationDurationNanos=" + animationDurationNanos +
+                ", droppedFrameCount=" + droppedFrameCount +
+                ", totalTimeNanos=" + totalTimeNanos +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview;
+
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 统计一次状态切换的耗时、layout次数及丢帧数，只在设置了
+ * {@link MultiStateView.OnTransitionMetricsListener}时创建
+ */
+final class TransitionTracker implements Choreographer.FrameCallback {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private final View mHost;
+    private final MultiStateView.OnTransitionMetricsListener mListener;
+    private final TransitionMetrics mMetrics = new TransitionMetrics();
+    private boolean isTracking;
+    private boolean isAnimating;
+    private long mStartNanos;
+    private long mInflateStartNanos;
+    private long mAnimationStartNanos;
+    private long mLastFrameNanos;
+    private long mFrameIntervalNanos;
+    private int mFrameCount;
+
+    TransitionTracker(@NonNull View host, @NonNull MultiStateView.OnTransitionMetricsListener listener) {
+        mHost = host;
+        mListener = listener;
+    }
+
+    /**
+     * 开始统计，上一次统计尚未结束时先回调上一次的结果
+     */
+    void begin(int fromState, int toState) {
+        if (isTracking) {
+            finish();
+        }
+        isTracking = true;
+        isAnimating = false;
+        mMetrics.reset(fromState, toState);
+        mStartNanos = System.nanoTime();
+        mLastFrameNanos = 0;
+        mFrameCount = 0;
+        Display display = mHost.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        mFrameIntervalNanos = (long) (NANOS_PER_SECOND / (refreshRate > 0 ? refreshRate : 60f));
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void beginInflate() {
+        if (isTracking) {
+            mInflateStartNanos = System.nanoTime();
+        }
+    }
+
+    void endInflate() {
+        if (isTracking && mInflateStartNanos != 0) {
+            mMetrics.inflateTimeNanos += System.nanoTime() - mInflateStartNanos;
+            mInflateStartNanos = 0;
+        }
+    }
+
+    void onLayout() {
+        if (isTracking) {
+            mMetrics.layoutPassCount++;
+        }
+    }
+
+    void onAnimationStart() {
+        if (isTracking) {
+            isAnimating = true;
+            mAnimationStartNanos = System.nanoTime();
+        }
+    }
+
+    void onAnimationEnd() {
+        if (isTracking && isAnimating) {
+            isAnimating = false;
+            mMetrics.animationDurationNanos = System.nanoTime() - mAnimationStartNanos;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!isTracking) {
+            return;
+        }
+        if (mLastFrameNanos != 0) {
+            long interval = frameTimeNanos - mLastFrameNanos;
+            if (interval > mFrameIntervalNanos + mFrameIntervalNanos / 2) {
+                mMetrics.droppedFrameCount += (int) (interval / mFrameIntervalNanos) - 1;
+            }
+        }
+        mLastFrameNanos = frameTimeNanos;
+        // 第一帧的layout在回调之后执行，至少等到第二帧再结束统计
+        if (isAnimating || ++mFrameCount < 2) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            finish();
+        }
+    }
+
+    private void finish() {
+        isTracking = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        mMetrics.totalTimeNanos = System.nanoTime() - mStartNanos;
+        mListener.onTransitionMetrics(mMetrics);
+    }
+
+    /**
+     * 结束统计，不回调结果
+     */
+    void cancel() {
+        isTracking = false;
+        isAnimating = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+}
@@ -0,0 +1,149 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 后台inflate状态布局期间显示占位视图，完成后替换；attach后在主线程空闲时预先inflate
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AsyncInflateTest {
+    private Activity activity;
+    private View content;
+    private MultiStateView multiStateView;
+    private final List<Integer> inflated = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        content = new View(activity);
+        multiStateView = new MultiStateView(activity, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_2);
+        multiStateView.setAsyncInflate(true);
+        multiStateView.showContentView();
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                inflated.add(viewState);
+            }
+        });
+    }
+
+    @Test
+    public void asyncInflate_placeholderReplacedWhenFinished() throws InterruptedException {
+        activity.setContentView(multiStateView);
+        multiStateView.showLoadingView();
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, multiStateView.getViewState());
+        assertTrue(inflated.isEmpty());
+        View placeholder = findPlaceholder();
+        assertNotNull(placeholder);
+        assertEquals(View.VISIBLE, placeholder.getVisibility());
+        assertEquals(View.GONE, content.getVisibility());
+
+        awaitInflated(1);
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        assertEquals(View.VISIBLE, loading.getVisibility());
+        assertEquals(View.GONE, placeholder.getVisibility());
+    }
+
+    @Test
+    public void syncGetViewDuringAsyncInflate_replacesPlaceholder() throws InterruptedException {
+        activity.setContentView(multiStateView);
+        multiStateView.showLoadingView();
+        View placeholder = findPlaceholder();
+
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        assertEquals(View.VISIBLE, loading.getVisibility());
+        assertEquals(View.GONE, placeholder.getVisibility());
+
+        // 后台inflate的结果被丢弃
+        awaitPendingAsyncInflations();
+        assertEquals(1, inflated.size());
+        assertEquals(loading, multiStateView.getView(MultiStateView.VIEW_STATE_LOADING));
+    }
+
+    @Test
+    public void prewarm_inflatesHiddenAfterAttach() throws InterruptedException {
+        multiStateView.setPrewarmStates(MultiStateView.VIEW_STATE_ERROR);
+        activity.setContentView(multiStateView);
+        awaitInflated(1);
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, (int) inflated.get(0));
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+        View error = multiStateView.getView(MultiStateView.VIEW_STATE_ERROR);
+        assertEquals(View.GONE, error.getVisibility());
+
+        multiStateView.showErrorView();
+        assertEquals(View.VISIBLE, error.getVisibility());
+        // 只有内容视图和错误视图，没有创建占位视图
+        assertEquals(2, multiStateView.getChildCount());
+        assertEquals(1, inflated.size());
+    }
+
+    /**
+     * 后台inflate期间除内容视图外只添加了占位视图
+     */
+    private View findPlaceholder() {
+        for (int i = 0; i < multiStateView.getChildCount(); i++) {
+            View child = multiStateView.getChildAt(i);
+            if (child != content) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 等待后台线程inflate完成，并执行主线程上的回调
+     */
+    private void awaitInflated(int count) throws InterruptedException {
+        for (int i = 0; i < 200 && inflated.size() < count; i++) {
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+        assertEquals(count, inflated.size());
+    }
+
+    /**
+     * 等待之前提交的后台inflate回调执行完毕。AsyncLayoutInflater共用一个后台线程按顺序inflate，
+     * 结果按顺序投递到主线程，之后提交的请求回调时之前的回调都已执行
+     */
+    private void awaitPendingAsyncInflations() throws InterruptedException {
+        final boolean[] finished = new boolean[1];
+        new AsyncLayoutInflater(activity).inflate(android.R.layout.simple_list_item_1, null,
+                new AsyncLayoutInflater.OnInflateFinishedListener() {
+                    @Override
+                    public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+                        finished[0] = true;
+                    }
+                });
+        for (int i = 0; i < 200 && !finished[0]; i++) {
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+        assertTrue(finished[0]);
+    }
+}
@@ -0,0 +1,154 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 网络连接状态变化时，所有开启自动切换的MultiStateView在同一帧切换到无网络视图并在恢复后还原
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ConnectivityMonitorTest {
+    private final FakeConnectivitySource source = new FakeConnectivitySource();
+    private Activity activity;
+    private MultiStateView first;
+    private MultiStateView second;
+    private int stateChangedCount;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ConnectivityMonitor.getInstance(activity).setConnectivitySource(source);
+        first = createMultiStateView();
+        second = createMultiStateView();
+        second.showEmptyView();
+        LinearLayout root = new LinearLayout(activity);
+        root.addView(first);
+        root.addView(second);
+        activity.setContentView(root);
+    }
+
+    @After
+    public void tearDown() {
+        activity.setContentView(new View(activity));
+    }
+
+    @Test
+    public void singleRegistrationWhileSubscribed() {
+        assertEquals(1, source.startCount);
+        assertNotNull(source.callback);
+        activity.setContentView(new View(activity));
+        assertNull(source.callback);
+    }
+
+    @Test
+    public void connectivityLost_entersNoNetworkAndRestores() {
+        source.setConnected(false);
+        idleFrame();
+        assertEquals(MultiStateView.VIEW_STATE_NO_NETWORK, first.getViewState());
+        assertEquals(MultiStateView.VIEW_STATE_NO_NETWORK, second.getViewState());
+
+        source.setConnected(true);
+        idleFrame();
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, first.getViewState());
+        assertEquals(MultiStateView.VIEW_STATE_EMPTY, second.getViewState());
+    }
+
+    @Test
+    public void changesWithinOneFrame_dispatchedOnce() {
+        stateChangedCount = 0;
+        source.setConnected(false);
+        source.setConnected(true);
+        source.setConnected(false);
+        idleFrame();
+        assertEquals(2, stateChangedCount);
+        assertEquals(MultiStateView.VIEW_STATE_NO_NETWORK, first.getViewState());
+    }
+
+    @Test
+    public void stateChangedWhileOffline_notRestored() {
+        source.setConnected(false);
+        idleFrame();
+        first.showErrorView();
+        source.setConnected(true);
+        idleFrame();
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, first.getViewState());
+    }
+
+    @Test
+    public void autoNoNetworkDisabled_ignoresConnectivity() {
+        first.setAutoNoNetwork(false);
+        source.setConnected(false);
+        idleFrame();
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, first.getViewState());
+        assertFalse(first.getViewState() == second.getViewState());
+    }
+
+    private MultiStateView createMultiStateView() {
+        MultiStateView multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setNoNetworkViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.showContentView();
+        multiStateView.setAutoNoNetwork(true);
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+                stateChangedCount++;
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+            }
+        });
+        return multiStateView;
+    }
+
+    private static void idleFrame() {
+        ShadowLooper.idleMainLooper(20, TimeUnit.MILLISECONDS);
+    }
+
+    private static class FakeConnectivitySource implements ConnectivityMonitor.ConnectivitySource {
+        private boolean connected = true;
+        private Callback callback;
+        private int startCount;
+
+        void setConnected(boolean connected) {
+            this.connected = connected;
+            if (callback != null) callback.onConnectivityChanged(connected);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void start(@NonNull Callback callback) {
+            this.callback = callback;
+            startCount++;
+        }
+
+        @Override
+        public void stop() {
+            callback = null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MultiStateView#CONTENT_HIDE_INVISIBLE}模式下返回内容状态时不重新测量内容视图，
+ * 隐藏期间内容视图不暴露给无障碍服务
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ContentHideModeTest {
+    private CountingView content;
+    private MultiStateView multiStateView;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        content = new CountingView(context);
+        content.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        multiStateView = new MultiStateView(context, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.showContentView();
+    }
+
+    @Test
+    public void invisibleMode_contentNotRemeasuredOnReturn() {
+        multiStateView.setContentHideMode(MultiStateView.CONTENT_HIDE_INVISIBLE);
+        assertEquals(0, runLoadingCycles());
+
+        multiStateView.showLoadingView();
+        assertEquals(View.INVISIBLE, content.getVisibility());
+    }
+
+    @Test
+    public void goneMode_contentRemeasuredOnReturn() {
+        assertTrue(runLoadingCycles() > 0);
+
+        multiStateView.showLoadingView();
+        assertEquals(View.GONE, content.getVisibility());
+    }
+
+    @Test
+    public void switchingMode_appliesToHiddenContent() {
+        multiStateView.showLoadingView();
+        multiStateView.setContentHideMode(MultiStateView.CONTENT_HIDE_INVISIBLE);
+        assertEquals(View.INVISIBLE, content.getVisibility());
+
+        multiStateView.setContentHideMode(MultiStateView.CONTENT_HIDE_GONE);
+        assertEquals(View.GONE, content.getVisibility());
+    }
+
+    @Test
+    public void invisibleMode_contentHiddenFromAccessibility() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        content.setClickable(true);
+        multiStateView.setContentHideMode(MultiStateView.CONTENT_HIDE_INVISIBLE);
+        activity.setContentView(multiStateView);
+        ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+        assertTrue(accessibilityChildren().contains(content));
+
+        multiStateView.showLoadingView();
+        ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+        assertFalse(content.isShown());
+        assertFalse(accessibilityChildren().contains(content));
+
+        multiStateView.showContentView();
+        assertTrue(content.isShown());
+        assertTrue(accessibilityChildren().contains(content));
+    }
+
+    /**
+     * 在加载中与内容之间切换5次
+     *
+     * @return 内容视图onMeasure的次数
+     */
+    private int runLoadingCycles() {
+        measureAndLayout();
+        content.measureCount = 0;
+        for (int i = 0; i < 5; i++) {
+            multiStateView.showLoadingView();
+            measureAndLayout();
+            multiStateView.showContentView();
+            measureAndLayout();
+        }
+        return content.measureCount;
+    }
+
+    private ArrayList<View> accessibilityChildren() {
+        ArrayList<View> children = new ArrayList<>();
+        multiStateView.addChildrenForAccessibility(children);
+        return children;
+    }
+
+    private void measureAndLayout() {
+        multiStateView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.AT_MOST),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.AT_MOST));
+        multiStateView.layout(0, 0, multiStateView.getMeasuredWidth(), multiStateView.getMeasuredHeight());
+    }
+
+    private static class CountingView extends View {
+        int measureCount;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+}
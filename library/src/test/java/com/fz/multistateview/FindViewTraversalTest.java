@@ -0,0 +1,83 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MultiStateView#findViewById(int)}查找时inflate次数测试
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FindViewTraversalTest {
+    private MultiStateView multiStateView;
+    private int inflateCount;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        multiStateView = new MultiStateView(context, new FrameLayout(context));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setNoNetworkViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setProcessViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                inflateCount++;
+            }
+        });
+    }
+
+    @Test
+    public void findViewById_inflatesAllStates() {
+        assertNull(multiStateView.findViewById(android.R.id.button1));
+        assertEquals(5, inflateCount);
+    }
+
+    @Test
+    public void findViewById_withoutInflation() {
+        multiStateView.setInflateOnFindView(false);
+        assertNull(multiStateView.findViewById(android.R.id.button1));
+        assertNull(multiStateView.findViewById(android.R.id.text1));
+        assertEquals(0, inflateCount);
+    }
+
+    @Test
+    public void setClickListener_bindsWhenStateInflated() {
+        multiStateView.setInflateOnFindView(false);
+        View.OnClickListener listener = new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+            }
+        };
+        multiStateView.setClickListener(android.R.id.text1, listener);
+        assertEquals(0, inflateCount);
+
+        multiStateView.showErrorView();
+        assertEquals(1, inflateCount);
+        assertTrue(multiStateView.getErrorView().findViewById(android.R.id.text1).hasOnClickListeners());
+
+        multiStateView.showNoNetworkView();
+        assertEquals(2, inflateCount);
+        assertTrue(multiStateView.getNoNetworkView().findViewById(android.R.id.text1).hasOnClickListeners());
+        assertFalse(multiStateView.isErrorView());
+    }
+}
@@ -0,0 +1,173 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 生命周期停止或不可见时，加载中视图的动画不再请求新的帧
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LifecyclePauseTest {
+    private TestLifecycleOwner lifecycleOwner;
+    private FrameCountingDrawable drawable;
+    private MultiStateView multiStateView;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        lifecycleOwner = new TestLifecycleOwner();
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.RESUMED);
+        drawable = new FrameCountingDrawable();
+        ImageView loadingView = new ImageView(activity);
+        loadingView.setImageDrawable(drawable);
+        multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setLoadingView(loadingView);
+        activity.setContentView(multiStateView);
+        multiStateView.setLifecycleOwner(lifecycleOwner);
+        multiStateView.showLoadingView();
+        drawable.start();
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+        assertTrue(drawable.frameCount > 0);
+    }
+
+    @Test
+    public void lifecycleStopped_postsNoFrames() {
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.CREATED);
+        assertTrue(multiStateView.isAnimationsPaused());
+        assertFalse(drawable.isRunning());
+        assertEquals(0, framesDuring(1000));
+
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.STARTED);
+        assertFalse(multiStateView.isAnimationsPaused());
+        assertTrue(drawable.isRunning());
+        assertTrue(framesDuring(100) > 0);
+    }
+
+    @Test
+    public void hidden_postsNoFrames() {
+        multiStateView.setVisibility(View.GONE);
+        assertTrue(multiStateView.isAnimationsPaused());
+        assertEquals(0, framesDuring(1000));
+
+        multiStateView.setVisibility(View.VISIBLE);
+        assertTrue(drawable.isRunning());
+        assertTrue(framesDuring(100) > 0);
+    }
+
+    @Test
+    public void hiddenWhileStopped_notRestarted() {
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.CREATED);
+        multiStateView.showContentView();
+
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.RESUMED);
+        assertFalse(multiStateView.isAnimationsPaused());
+        assertFalse(drawable.isRunning());
+        assertEquals(0, framesDuring(1000));
+    }
+
+    @Test
+    public void transitionPausedWhileStopped() {
+        CrossFadeTransition transition = new CrossFadeTransition();
+        multiStateView.setStateTransition(transition);
+        multiStateView.showContentView();
+        assertTrue(transition.isRunning());
+
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.CREATED);
+        assertTrue(transition.isPaused());
+
+        lifecycleOwner.registry.setCurrentState(Lifecycle.State.RESUMED);
+        assertFalse(transition.isPaused());
+    }
+
+    private int framesDuring(long millis) {
+        drawable.frameCount = 0;
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+        return drawable.frameCount;
+    }
+
+    private static class TestLifecycleOwner implements LifecycleOwner {
+        final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+
+    /**
+     * 运行时每16毫秒通过{@link #scheduleSelf(Runnable, long)}请求一帧
+     */
+    private static class FrameCountingDrawable extends Drawable implements Animatable, Runnable {
+        int frameCount;
+        private boolean running;
+
+        @Override
+        public void start() {
+            running = true;
+            scheduleSelf(this, SystemClock.uptimeMillis() + 16);
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            unscheduleSelf(this);
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public void run() {
+            frameCount++;
+            invalidateSelf();
+            if (running) {
+                scheduleSelf(this, SystemClock.uptimeMillis() + 16);
+            }
+        }
+
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 加载中视图的延迟显示与最短显示时间，主线程Looper暂停，由测试推进时间
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class LoadingDelayTest {
+    private MultiStateView multiStateView;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_2);
+        multiStateView.showContentView();
+        activity.setContentView(multiStateView);
+        idle(16);
+        listener = new RecordingListener();
+        multiStateView.setStateListener(listener);
+    }
+
+    @Test
+    public void contentWithinShowDelay_showsAndInflatesNothing() {
+        multiStateView.setLoadingShowDelay(300);
+        multiStateView.showLoadingView();
+        idle(100);
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+
+        multiStateView.showContentView();
+        idle(1000);
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+        assertTrue(listener.changed.isEmpty());
+        assertTrue(listener.inflated.isEmpty());
+    }
+
+    @Test
+    public void loadingAfterShowDelay_shown() {
+        multiStateView.setLoadingShowDelay(300);
+        multiStateView.showLoadingView();
+        idle(299);
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+
+        idle(1);
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, multiStateView.getViewState());
+        assertEquals(1, listener.inflated.size());
+    }
+
+    @Test
+    public void contentBeforeMinShowTime_heldBack() {
+        multiStateView.setLoadingMinShowTime(500);
+        multiStateView.showLoadingView();
+        idle(100);
+        multiStateView.showContentView();
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, multiStateView.getViewState());
+
+        idle(300);
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, multiStateView.getViewState());
+
+        idle(100);
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+        assertEquals(2, listener.changed.size());
+    }
+
+    @Test
+    public void pendingShowDelay_cancelledByNewState() {
+        multiStateView.setLoadingShowDelay(300);
+        multiStateView.showLoadingView();
+        idle(100);
+        multiStateView.showErrorView();
+        idle(1000);
+
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, multiStateView.getViewState());
+        assertEquals(1, listener.changed.size());
+        assertEquals(1, listener.inflated.size());
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, (int) listener.inflated.get(0));
+    }
+
+    @Test
+    public void pendingMinShowTime_cancelledByLoading() {
+        multiStateView.setLoadingMinShowTime(500);
+        multiStateView.showLoadingView();
+        idle(100);
+        multiStateView.showContentView();
+        idle(100);
+        multiStateView.showLoadingView();
+        idle(1000);
+
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, multiStateView.getViewState());
+        assertEquals(1, listener.changed.size());
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private static class RecordingListener implements MultiStateView.StateListener {
+        final List<Integer> changed = new ArrayList<>();
+        final List<Integer> inflated = new ArrayList<>();
+
+        @Override
+        public void onStateChanged(int viewState) {
+            changed.add(viewState);
+        }
+
+        @Override
+        public void onStateInflated(int viewState, @NonNull View view) {
+            inflated.add(viewState);
+        }
+    }
+}
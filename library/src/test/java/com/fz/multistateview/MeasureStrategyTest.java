@@ -0,0 +1,106 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 状态视图覆盖在内容上时，不同测量策略下内容视图的onMeasure次数
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MeasureStrategyTest {
+    private static final int[] OVERLAY_STATES = {
+            MultiStateView.VIEW_STATE_LOADING,
+            MultiStateView.VIEW_STATE_ERROR,
+            MultiStateView.VIEW_STATE_PROCESS,
+            MultiStateView.VIEW_STATE_EMPTY
+    };
+    private Context context;
+    private CountingView content;
+    private MultiStateView multiStateView;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        content = new CountingView(context);
+        content.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        multiStateView = new MultiStateView(context, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setProcessViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setForceShowContent(true);
+    }
+
+    @Test
+    public void measureAllChildren_measuresContentTwicePerTransition() {
+        assertEquals(2 * OVERLAY_STATES.length, runTransitions());
+    }
+
+    @Test
+    public void measureActiveState_measuresContentOncePerTransition() {
+        multiStateView.setMeasureStrategy(MultiStateView.MEASURE_ACTIVE_STATE);
+        assertEquals(OVERLAY_STATES.length, runTransitions());
+    }
+
+    @Test
+    public void measureActiveState_reusesContentMeasurementWhenOverlayToggles() {
+        multiStateView.setMeasureStrategy(MultiStateView.MEASURE_ACTIVE_STATE);
+        multiStateView.showLoadingView();
+        measureAndLayout();
+        content.measureCount = 0;
+        for (int i = 0; i < 5; i++) {
+            multiStateView.showProcessView();
+            measureAndLayout();
+            multiStateView.showLoadingView();
+            measureAndLayout();
+        }
+        assertEquals(0, content.measureCount);
+    }
+
+    /**
+     * 依次切换到各个覆盖状态，每次切换时内容视图都有更新（如列表数据变化）
+     *
+     * @return 内容视图onMeasure的次数
+     */
+    private int runTransitions() {
+        multiStateView.showContentView();
+        measureAndLayout();
+        content.measureCount = 0;
+        for (int state : OVERLAY_STATES) {
+            multiStateView.setViewState(state);
+            content.requestLayout();
+            measureAndLayout();
+        }
+        return content.measureCount;
+    }
+
+    private void measureAndLayout() {
+        multiStateView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.AT_MOST),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.AT_MOST));
+        multiStateView.layout(0, 0, multiStateView.getMeasuredWidth(), multiStateView.getMeasuredHeight());
+    }
+
+    private static class CountingView extends View {
+        int measureCount;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+}
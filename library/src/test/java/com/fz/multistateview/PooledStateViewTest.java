@@ -0,0 +1,142 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 通过{@link MultiStateView}使用{@link StateViewPool}：创建时获取、分离或离开状态时归还，以及跨实例复用
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PooledStateViewTest {
+    private static final int LOADING_LAYOUT = android.R.layout.simple_list_item_1;
+    private Activity activity;
+    private FrameLayout container;
+    private StateViewPool pool;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        container = new FrameLayout(activity);
+        activity.setContentView(container);
+        pool = new StateViewPool();
+    }
+
+    private MultiStateView newMultiStateView() {
+        MultiStateView multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setLoadingViewResId(LOADING_LAYOUT);
+        multiStateView.setStateViewPool(pool);
+        multiStateView.showContentView();
+        return multiStateView;
+    }
+
+    @Test
+    public void ensureStateView_acquiresFromPool() {
+        View pooled = activity.getLayoutInflater().inflate(LOADING_LAYOUT, null, false);
+        pool.release(LOADING_LAYOUT, pooled);
+
+        MultiStateView multiStateView = newMultiStateView();
+        container.addView(multiStateView);
+        multiStateView.showLoadingView();
+
+        assertSame(pooled, multiStateView.getView(MultiStateView.VIEW_STATE_LOADING));
+        assertSame(multiStateView, pooled.getParent());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void detachFromWindow_releasesToPool() {
+        MultiStateView multiStateView = newMultiStateView();
+        container.addView(multiStateView);
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+
+        container.removeView(multiStateView);
+
+        assertNull(loading.getParent());
+        assertEquals(1, pool.size());
+        assertSame(loading, pool.acquire(LOADING_LAYOUT, activity));
+    }
+
+    @Test
+    public void recycleOnExit_releasesWhenLeavingState() {
+        MultiStateView multiStateView = newMultiStateView();
+        multiStateView.setRecycleStateViewOnExit(true);
+        container.addView(multiStateView);
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+
+        multiStateView.showContentView();
+
+        assertNull(loading.getParent());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void secondInstance_reusesViewWithoutPreviousListeners() {
+        MultiStateView first = newMultiStateView();
+        container.addView(first);
+        final int[] firstClicks = new int[1];
+        first.setClickListener(android.R.id.text1, new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                firstClicks[0]++;
+            }
+        });
+        first.showLoadingView();
+        View loading = first.getView(MultiStateView.VIEW_STATE_LOADING);
+        View text = loading.findViewById(android.R.id.text1);
+        assertTrue(text.hasOnClickListeners());
+        container.removeView(first);
+
+        MultiStateView second = newMultiStateView();
+        container.addView(second);
+        second.showLoadingView();
+        ShadowLooper.idleMainLooper();
+
+        assertSame(loading, second.getView(MultiStateView.VIEW_STATE_LOADING));
+        assertSame(second, loading.getParent());
+        assertEquals(View.VISIBLE, loading.getVisibility());
+        assertFalse(text.hasOnClickListeners());
+        assertFalse(text.performClick());
+        assertEquals(0, firstClicks[0]);
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void secondInstance_rebindsItsOwnClickListener() {
+        MultiStateView first = newMultiStateView();
+        container.addView(first);
+        first.showLoadingView();
+        View loading = first.getView(MultiStateView.VIEW_STATE_LOADING);
+        container.removeView(first);
+
+        MultiStateView second = newMultiStateView();
+        final int[] secondClicks = new int[1];
+        second.setClickListener(android.R.id.text1, new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                secondClicks[0]++;
+            }
+        });
+        container.addView(second);
+        second.showLoadingView();
+
+        assertSame(loading, second.getView(MultiStateView.VIEW_STATE_LOADING));
+        assertTrue(loading.findViewById(android.R.id.text1).performClick());
+        assertEquals(1, secondClicks[0]);
+    }
+}
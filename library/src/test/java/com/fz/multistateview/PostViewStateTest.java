@@ -0,0 +1,76 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 工作线程多次提交状态时，下一帧只切换到最后提交的状态，状态回调只触发一次
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class PostViewStateTest {
+    private MultiStateView multiStateView;
+    private final List<Integer> changed = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.showContentView();
+        activity.setContentView(multiStateView);
+        ShadowLooper.idleMainLooper(16, TimeUnit.MILLISECONDS);
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+                changed.add(viewState);
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+            }
+        });
+    }
+
+    @Test
+    public void postedFromWorkerThread_coalescedToLastState() throws InterruptedException {
+        final int[] states = {MultiStateView.VIEW_STATE_LOADING, MultiStateView.VIEW_STATE_EMPTY,
+                MultiStateView.VIEW_STATE_LOADING, MultiStateView.VIEW_STATE_ERROR};
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    multiStateView.postViewState(states[i % states.length]);
+                }
+            }
+        });
+        worker.start();
+        worker.join();
+        assertTrue(changed.isEmpty());
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+        assertEquals(1, changed.size());
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, (int) changed.get(0));
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, multiStateView.getViewState());
+    }
+}
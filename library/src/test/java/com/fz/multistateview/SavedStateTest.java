@@ -0,0 +1,101 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.os.Parcelable;
+import android.util.SparseArray;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 重建后直接还原保存的状态，只inflate还原状态的布局
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SavedStateTest {
+    private final int viewId = View.generateViewId();
+    private final List<Integer> inflatedStates = new ArrayList<>();
+    private SparseArray<Parcelable> container;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        MultiStateView multiStateView = createMultiStateView(activity);
+        activity.setContentView(multiStateView);
+        multiStateView.showErrorView();
+        container = new SparseArray<>();
+        multiStateView.saveHierarchyState(container);
+        inflatedStates.clear();
+    }
+
+    @Test
+    public void restoreBeforeAttach_inflatesRestoredStateOnly() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        MultiStateView multiStateView = createMultiStateView(activity);
+        // XML中默认显示加载中
+        multiStateView.setViewState(MultiStateView.VIEW_STATE_LOADING);
+        inflatedStates.clear();
+        multiStateView.restoreHierarchyState(container);
+        activity.setContentView(multiStateView);
+
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, multiStateView.getViewState());
+        assertEquals(Collections.singletonList(MultiStateView.VIEW_STATE_ERROR), inflatedStates);
+    }
+
+    @Test
+    public void restoreBeforeAttach_fromDefaultState() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        MultiStateView multiStateView = createMultiStateView(activity);
+        multiStateView.restoreHierarchyState(container);
+        assertEquals(0, inflatedStates.size());
+        activity.setContentView(multiStateView);
+
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, multiStateView.getViewState());
+        assertEquals(Collections.singletonList(MultiStateView.VIEW_STATE_ERROR), inflatedStates);
+    }
+
+    @Test
+    public void restorePendingLoading_savesPendingState() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        MultiStateView multiStateView = createMultiStateView(activity);
+        activity.setContentView(multiStateView);
+        multiStateView.setLoadingShowDelay(500);
+        multiStateView.showLoadingView();
+        SparseArray<Parcelable> pending = new SparseArray<>();
+        multiStateView.saveHierarchyState(pending);
+
+        MultiStateView restored = createMultiStateView(activity);
+        restored.restoreHierarchyState(pending);
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, restored.getViewState());
+    }
+
+    private MultiStateView createMultiStateView(Activity activity) {
+        MultiStateView multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setId(viewId);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                inflatedStates.add(viewState);
+            }
+        });
+        return multiStateView;
+    }
+}
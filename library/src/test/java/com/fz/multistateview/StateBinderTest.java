@@ -0,0 +1,111 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 错误页重试时ViewHolder只创建一次，相同的数据不重复绑定
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateBinderTest {
+    private MultiStateView multiStateView;
+    private CountingBinder binder;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        multiStateView = new MultiStateView(context, new View(context));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        binder = new CountingBinder();
+        multiStateView.setStateBinder(MultiStateView.VIEW_STATE_ERROR, binder);
+    }
+
+    @Test
+    public void retryLoop_createsHolderOnceAndSkipsEqualPayloads() {
+        for (int i = 0; i < 10; i++) {
+            multiStateView.showLoadingView();
+            multiStateView.setViewState(MultiStateView.VIEW_STATE_ERROR, "服务器繁忙");
+        }
+        assertEquals(1, binder.createCount);
+        assertEquals(1, binder.bindCount);
+        assertEquals("服务器繁忙", binder.holder.getText().toString());
+    }
+
+    @Test
+    public void changedPayload_rebinds() {
+        multiStateView.setViewState(MultiStateView.VIEW_STATE_ERROR, "服务器繁忙");
+        multiStateView.setViewState(MultiStateView.VIEW_STATE_ERROR, "网络超时");
+        multiStateView.showLoadingView();
+        multiStateView.showErrorView();
+        assertEquals(1, binder.createCount);
+        assertEquals(2, binder.bindCount);
+        assertEquals("网络超时", binder.holder.getText().toString());
+    }
+
+    @Test
+    public void payloadBeforeInflate_boundOnFirstShow() {
+        multiStateView.setViewState(MultiStateView.VIEW_STATE_LOADING, null);
+        assertEquals(0, binder.createCount);
+        multiStateView.setViewState(MultiStateView.VIEW_STATE_ERROR, "服务器繁忙");
+        assertEquals(1, binder.createCount);
+        assertEquals(1, binder.bindCount);
+    }
+
+    @Test
+    public void payloadBeforeRegistration_keptUntilBound() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        MultiStateView view = new MultiStateView(activity, new View(activity));
+        view.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        view.setLoadingMinShowTime(500);
+        activity.setContentView(view);
+        view.showLoadingView();
+        // 加载中视图的最短显示时间内，空数据状态等待切换，此时尚未设置布局和StateBinder
+        view.setViewState(MultiStateView.VIEW_STATE_EMPTY, "暂无数据");
+        CountingBinder emptyBinder = new CountingBinder();
+        view.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        view.setStateBinder(MultiStateView.VIEW_STATE_EMPTY, emptyBinder);
+
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        assertEquals(MultiStateView.VIEW_STATE_EMPTY, view.getViewState());
+        assertEquals(1, emptyBinder.bindCount);
+        assertEquals("暂无数据", emptyBinder.holder.getText().toString());
+    }
+
+    private static class CountingBinder implements StateBinder<TextView> {
+        int createCount;
+        int bindCount;
+        TextView holder;
+
+        @NonNull
+        @Override
+        public TextView onCreateViewHolder(@NonNull View view) {
+            createCount++;
+            holder = view.findViewById(android.R.id.text1);
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull TextView holder, @Nullable Object payload) {
+            bindCount++;
+            holder.setText((CharSequence) payload);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewStub;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 通过{@link MultiStateView.LayoutParams}区分内容视图与状态视图
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateLayoutParamsTest {
+    private Context context;
+    private MultiStateView multiStateView;
+    private int inflateCount;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        multiStateView = new MultiStateView(context);
+    }
+
+    @Test
+    public void stateChildDeclaredBeforeContent_isNotContent() {
+        View error = new View(context);
+        MultiStateView.LayoutParams lp = new MultiStateView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+        lp.state = MultiStateView.VIEW_STATE_ERROR;
+        multiStateView.addView(error, lp);
+        View content = new View(context);
+        multiStateView.addView(content);
+
+        assertSame(content, multiStateView.getContentView());
+        assertSame(error, multiStateView.getView(MultiStateView.VIEW_STATE_ERROR));
+        assertEquals(View.GONE, error.getVisibility());
+    }
+
+    @Test
+    public void stubChild_inflatedOnFirstShow() {
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                inflateCount++;
+            }
+        });
+        ViewStub stub = new ViewStub(context, android.R.layout.simple_list_item_1);
+        MultiStateView.LayoutParams lp = new MultiStateView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        lp.state = MultiStateView.VIEW_STATE_ERROR;
+        multiStateView.addView(stub, lp);
+        multiStateView.addView(new View(context));
+
+        assertTrue(multiStateView.hasStateView(MultiStateView.VIEW_STATE_ERROR));
+        assertEquals(0, inflateCount);
+        assertSame(stub, multiStateView.getChildAt(0));
+
+        multiStateView.showErrorView();
+        View error = multiStateView.getChildAt(0);
+        assertEquals(1, inflateCount);
+        assertTrue(error instanceof TextView);
+        assertSame(error, multiStateView.getView(MultiStateView.VIEW_STATE_ERROR));
+        assertEquals(View.VISIBLE, error.getVisibility());
+        assertEquals(ViewGroup.LayoutParams.WRAP_CONTENT, error.getLayoutParams().height);
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, ((MultiStateView.LayoutParams) error.getLayoutParams()).state);
+        assertNull(stub.getParent());
+
+        multiStateView.showContentView();
+        multiStateView.showErrorView();
+        assertEquals(1, inflateCount);
+    }
+
+    @Test
+    public void stateViews_taggedWithTheirState() {
+        multiStateView.setContentView(new View(context));
+        View process = new View(context);
+        process.setLayoutParams(new FrameLayout.LayoutParams(10, 10));
+        multiStateView.setProcessView(process);
+
+        assertTrue(process.getLayoutParams() instanceof MultiStateView.LayoutParams);
+        assertEquals(MultiStateView.VIEW_STATE_PROCESS, ((MultiStateView.LayoutParams) process.getLayoutParams()).state);
+        assertEquals(10, process.getLayoutParams().width);
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT,
+                ((MultiStateView.LayoutParams) multiStateView.getContentView().getLayoutParams()).state);
+    }
+}
@@ -0,0 +1,132 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.text.PrecomputedText;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 状态文字在隐藏时预先计算，显示时使用缓存结果，相同文字不重复计算
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateMessageTest {
+    private static final String MESSAGE = "network error";
+    private Context context;
+    private MultiStateView multiStateView;
+    private TextView messageView;
+
+    @Before
+    public void setUp() {
+        PrecomputedTextCache.clear();
+        context = RuntimeEnvironment.getApplication();
+        multiStateView = new MultiStateView(context, new View(context));
+        messageView = setErrorView(multiStateView);
+        multiStateView.showContentView();
+    }
+
+    @Test
+    public void hiddenMessage_precomputedAndUsedWhenShown() throws InterruptedException {
+        multiStateView.setStateMessage(MultiStateView.VIEW_STATE_ERROR, MESSAGE);
+        assertEquals("", messageView.getText().toString());
+        awaitPrecomputed(MESSAGE, messageView);
+
+        multiStateView.showErrorView();
+        assertEquals(MESSAGE, messageView.getText().toString());
+        assertTrue(messageView.getText() instanceof PrecomputedText);
+    }
+
+    @Test
+    public void hiddenMessage_appliedWhenShownBeforePrecomputeFinishes() {
+        multiStateView.setStateMessage(MultiStateView.VIEW_STATE_ERROR, MESSAGE);
+        multiStateView.showErrorView();
+        assertEquals(MESSAGE, messageView.getText().toString());
+
+        // 显示期间修改的文字立即生效
+        multiStateView.setStateMessage(MultiStateView.VIEW_STATE_ERROR, "timeout");
+        assertEquals("timeout", messageView.getText().toString());
+    }
+
+    @Test
+    public void appliedMessage_notReappliedWhenShownAgain() {
+        multiStateView.setStateMessage(MultiStateView.VIEW_STATE_ERROR, MESSAGE);
+        multiStateView.showErrorView();
+        messageView.setText("changed by caller");
+
+        multiStateView.showContentView();
+        multiStateView.showErrorView();
+        assertEquals("changed by caller", messageView.getText().toString());
+
+        // 再次设置相同的文字时重新应用
+        multiStateView.setStateMessage(MultiStateView.VIEW_STATE_ERROR, MESSAGE);
+        assertEquals(MESSAGE, messageView.getText().toString());
+    }
+
+    @Test
+    public void repeatedMessage_reusesCachedLayout() throws InterruptedException {
+        multiStateView.setStateMessage(MultiStateView.VIEW_STATE_ERROR, MESSAGE);
+        PrecomputedTextCompat precomputed = awaitPrecomputed(MESSAGE, messageView);
+
+        MultiStateView other = new MultiStateView(context, new View(context));
+        TextView otherMessageView = setErrorView(other);
+        other.showContentView();
+        other.setStateMessage(MultiStateView.VIEW_STATE_ERROR, new StringBuilder(MESSAGE));
+        // 后台线程按顺序执行，之后提交的文字计算完成时之前的请求都已处理
+        awaitPrecomputed("marker", otherMessageView);
+
+        assertSame(precomputed, PrecomputedTextCache.get(MESSAGE, TextViewCompat.getTextMetricsParams(otherMessageView)));
+        other.showErrorView();
+        assertEquals(MESSAGE, otherMessageView.getText().toString());
+        assertTrue(otherMessageView.getText() instanceof PrecomputedText);
+    }
+
+    @Test
+    public void messageBeforeStateView_appliedWhenStateViewCreated() {
+        MultiStateView other = new MultiStateView(context, new View(context));
+        other.showContentView();
+        other.setStateMessage(MultiStateView.VIEW_STATE_ERROR, MESSAGE);
+        // 状态视图创建时不是当前状态，添加时开始预先计算
+        TextView otherMessageView = setErrorView(other);
+        assertEquals("", otherMessageView.getText().toString());
+
+        other.showErrorView();
+        assertEquals(MESSAGE, otherMessageView.getText().toString());
+    }
+
+    private TextView setErrorView(MultiStateView view) {
+        FrameLayout errorView = new FrameLayout(context);
+        TextView textView = new TextView(context);
+        textView.setId(R.id.msv_message);
+        errorView.addView(textView);
+        view.setViewForState(errorView, MultiStateView.VIEW_STATE_ERROR);
+        return textView;
+    }
+
+    private static PrecomputedTextCompat awaitPrecomputed(CharSequence text, TextView textView)
+            throws InterruptedException {
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+        // 已缓存或正在计算时忽略，只用于提交尚未计算的文字
+        PrecomputedTextCache.precompute(text, params);
+        PrecomputedTextCompat precomputed = null;
+        for (int i = 0; i < 200 && precomputed == null; i++) {
+            Thread.sleep(10);
+            precomputed = PrecomputedTextCache.get(text, params);
+        }
+        assertNotNull(precomputed);
+        return precomputed;
+    }
+}
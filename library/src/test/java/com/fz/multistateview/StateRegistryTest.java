@@ -0,0 +1,106 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自定义状态的注册、切换与移除，状态值不要求连续
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateRegistryTest {
+    private static final int STATE_MAINTENANCE = 100;
+    private static final int STATE_LOGIN = 1000;
+    private Context context;
+    private View content;
+    private MultiStateView multiStateView;
+    private final List<Integer> inflated = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        content = new View(context);
+        multiStateView = new MultiStateView(context, content);
+        multiStateView.showContentView();
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                inflated.add(viewState);
+            }
+        });
+    }
+
+    @Test
+    public void customState_inflatedOnFirstShow() {
+        multiStateView.registerState(STATE_MAINTENANCE, android.R.layout.simple_list_item_1);
+        assertTrue(multiStateView.hasStateView(STATE_MAINTENANCE));
+        assertTrue(inflated.isEmpty());
+
+        multiStateView.setViewState(STATE_MAINTENANCE);
+        assertEquals(STATE_MAINTENANCE, multiStateView.getViewState());
+        View view = multiStateView.getView(STATE_MAINTENANCE);
+        assertNotNull(view);
+        assertEquals(View.VISIBLE, view.getVisibility());
+        assertEquals(View.GONE, content.getVisibility());
+        assertEquals(1, inflated.size());
+        assertEquals(STATE_MAINTENANCE, (int) inflated.get(0));
+    }
+
+    @Test
+    public void sparseStates_keptApart() {
+        View maintenance = new View(context);
+        View login = new View(context);
+        multiStateView.registerState(STATE_MAINTENANCE, maintenance, false);
+        multiStateView.registerState(STATE_LOGIN, login, true);
+
+        multiStateView.setViewState(STATE_LOGIN);
+        assertEquals(View.VISIBLE, login.getVisibility());
+        assertEquals(View.GONE, maintenance.getVisibility());
+        assertEquals(View.VISIBLE, content.getVisibility());
+
+        multiStateView.setViewState(STATE_MAINTENANCE);
+        assertEquals(View.GONE, login.getVisibility());
+        assertEquals(View.VISIBLE, maintenance.getVisibility());
+        assertEquals(View.GONE, content.getVisibility());
+        assertFalse(multiStateView.hasStateView(STATE_MAINTENANCE + 1));
+    }
+
+    @Test
+    public void unregisterCurrentState_switchesToContent() {
+        View maintenance = new View(context);
+        multiStateView.registerState(STATE_MAINTENANCE, maintenance, false);
+        multiStateView.setViewState(STATE_MAINTENANCE);
+
+        multiStateView.unregisterState(STATE_MAINTENANCE);
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+        assertEquals(View.VISIBLE, content.getVisibility());
+        assertNull(maintenance.getParent());
+        assertFalse(multiStateView.hasStateView(STATE_MAINTENANCE));
+        assertNull(multiStateView.getView(STATE_MAINTENANCE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registerContentState_throws() {
+        multiStateView.registerState(MultiStateView.VIEW_STATE_CONTENT, android.R.layout.simple_list_item_1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.core.view.AccessibilityDelegateCompat;
+import androidx.core.view.ViewCompat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 只在绘制{@link StateSpec}期间替换AccessibilityDelegate，停止绘制后恢复应用设置的delegate
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateSpecAccessibilityTest {
+    private MultiStateView multiStateView;
+    private AccessibilityDelegateCompat appDelegate;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        multiStateView = new MultiStateView(context, new View(context));
+        multiStateView.setEmptyViewResId(View.NO_ID);
+        multiStateView.setStateSpec(MultiStateView.VIEW_STATE_EMPTY, new StateSpec(0, "暂无数据"));
+        multiStateView.showContentView();
+        appDelegate = new AccessibilityDelegateCompat();
+        ViewCompat.setAccessibilityDelegate(multiStateView, appDelegate);
+    }
+
+    @Test
+    public void delegateRestoredAfterSpecHidden() {
+        multiStateView.showEmptyView();
+        assertNotSame(appDelegate, ViewCompat.getAccessibilityDelegate(multiStateView));
+
+        multiStateView.showContentView();
+        assertSame(appDelegate, ViewCompat.getAccessibilityDelegate(multiStateView));
+    }
+}
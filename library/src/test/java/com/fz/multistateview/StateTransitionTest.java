@@ -0,0 +1,111 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 切换动画执行中切换到新状态时，上一次动画被取消，所有视图最终恢复到静止时的属性
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateTransitionTest {
+    private Activity activity;
+    private MultiStateView multiStateView;
+    private View content;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        content = new View(activity);
+        multiStateView = new MultiStateView(activity, content);
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_2);
+        multiStateView.setTransitionDuration(250);
+        multiStateView.showContentView();
+        activity.setContentView(multiStateView);
+        idle(16);
+    }
+
+    @Test
+    public void newState_cancelsInFlightTransition() {
+        multiStateView.setStateTransition(new CrossFadeTransition());
+        multiStateView.showLoadingView();
+        idle(100);
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        assertTrue(loading.getAlpha() > 0f && loading.getAlpha() < 1f);
+
+        multiStateView.showErrorView();
+        idle(300);
+
+        View error = multiStateView.getView(MultiStateView.VIEW_STATE_ERROR);
+        assertFalse(multiStateView.getStateTransition().isRunning());
+        assertEquals(View.GONE, content.getVisibility());
+        assertEquals(View.GONE, loading.getVisibility());
+        assertEquals(View.VISIBLE, error.getVisibility());
+        assertAtRest(content);
+        assertAtRest(loading);
+        assertAtRest(error);
+    }
+
+    @Test
+    public void interruptedSlide_viewsEndAtRest() {
+        multiStateView.setStateTransition(new SlideTransition());
+        multiStateView.showLoadingView();
+        idle(100);
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        assertNotEquals(0f, loading.getTranslationX(), 0f);
+        multiStateView.showErrorView();
+        idle(50);
+        multiStateView.showContentView();
+        idle(300);
+
+        View error = multiStateView.getView(MultiStateView.VIEW_STATE_ERROR);
+        assertEquals(View.VISIBLE, content.getVisibility());
+        assertEquals(View.GONE, loading.getVisibility());
+        assertEquals(View.GONE, error.getVisibility());
+        assertAtRest(content);
+        assertAtRest(loading);
+        assertAtRest(error);
+    }
+
+    @Test
+    public void detachMidTransition_poolReceivesViewsAtRest() {
+        StateViewPool pool = new StateViewPool();
+        multiStateView.setStateViewPool(pool);
+        multiStateView.setStateTransition(new SlideTransition());
+        multiStateView.showLoadingView();
+        idle(100);
+        assertNotEquals(0f, multiStateView.getView(MultiStateView.VIEW_STATE_LOADING).getTranslationX(), 0f);
+
+        activity.setContentView(new View(activity));
+        View recycled = pool.acquire(android.R.layout.simple_list_item_1, activity);
+        assertNotNull(recycled);
+        assertEquals(View.VISIBLE, recycled.getVisibility());
+        assertAtRest(recycled);
+    }
+
+    private static void assertAtRest(View view) {
+        assertEquals(1f, view.getAlpha(), 0f);
+        assertEquals(0f, view.getTranslationX(), 0f);
+        assertEquals(0f, view.getTranslationY(), 0f);
+        assertEquals(View.LAYER_TYPE_NONE, view.getLayerType());
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+}
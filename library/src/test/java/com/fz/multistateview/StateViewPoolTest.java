@@ -0,0 +1,96 @@
+package com.fz.multistateview;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link StateViewPool}的淘汰策略及按主题区分
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateViewPoolTest {
+    private static final int LAYOUT_A = 1;
+    private static final int LAYOUT_B = 2;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(RuntimeEnvironment.getApplication(), android.R.style.Theme_Material);
+    }
+
+    @Test
+    public void perKeyCap_evictsOldestOfThatLayout() {
+        StateViewPool pool = new StateViewPool();
+        View first = new View(context);
+        View second = new View(context);
+        View third = new View(context);
+        pool.release(LAYOUT_A, first);
+        pool.release(LAYOUT_A, second);
+        pool.release(LAYOUT_A, third);
+
+        assertEquals(2, pool.size());
+        assertSame(third, pool.acquire(LAYOUT_A, context));
+        assertSame(second, pool.acquire(LAYOUT_A, context));
+        assertNull(pool.acquire(LAYOUT_A, context));
+    }
+
+    @Test
+    public void setMaxRecycledViews_trimsExistingViews() {
+        StateViewPool pool = new StateViewPool();
+        pool.release(LAYOUT_A, new View(context));
+        pool.release(LAYOUT_A, new View(context));
+        pool.setMaxRecycledViews(LAYOUT_A, 0);
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.keyCount());
+    }
+
+    @Test
+    public void maxSize_evictsLeastRecentlyUsedLayout() {
+        StateViewPool pool = new StateViewPool(2);
+        View a1 = new View(context);
+        View a2 = new View(context);
+        pool.release(LAYOUT_A, a1);
+        pool.release(LAYOUT_B, new View(context));
+        // 再次访问A，B成为最久未使用
+        pool.release(LAYOUT_A, a2);
+
+        assertEquals(2, pool.size());
+        assertNull(pool.acquire(LAYOUT_B, context));
+        assertSame(a2, pool.acquire(LAYOUT_A, context));
+        assertSame(a1, pool.acquire(LAYOUT_A, context));
+    }
+
+    @Test
+    public void theme_isPartOfTheKey() {
+        Context other = new ContextThemeWrapper(RuntimeEnvironment.getApplication(), android.R.style.Theme_Material_Light);
+        StateViewPool pool = new StateViewPool();
+        View view = new View(context);
+        pool.release(LAYOUT_A, view);
+
+        assertNull(pool.acquire(LAYOUT_A, other));
+        assertSame(view, pool.acquire(LAYOUT_A, context));
+    }
+
+    @Test
+    public void acquire_removesEmptyQueues() {
+        StateViewPool pool = new StateViewPool();
+        pool.release(LAYOUT_A, new View(context));
+        pool.release(LAYOUT_B, new View(context));
+        assertEquals(2, pool.keyCount());
+        pool.acquire(LAYOUT_A, context);
+        assertEquals(1, pool.keyCount());
+        pool.clear();
+        assertEquals(0, pool.keyCount());
+        assertEquals(0, pool.size());
+    }
+}
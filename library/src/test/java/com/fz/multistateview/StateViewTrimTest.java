@@ -0,0 +1,173 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.os.SystemClock;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 内存紧张或离开状态超过指定时间后释放隐藏的状态视图，再次显示时重新inflate
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateViewTrimTest {
+    private Activity activity;
+    private MultiStateView multiStateView;
+    private View emptyView;
+    private int trimmedViewCount;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_2);
+        emptyView = new View(activity);
+        multiStateView.setEmptyView(emptyView);
+        multiStateView.setOnStateViewsTrimmedListener(new MultiStateView.OnStateViewsTrimmedListener() {
+            @Override
+            public void onStateViewsTrimmed(int viewCount, long bitmapByteCount) {
+                trimmedViewCount += viewCount;
+            }
+        });
+        multiStateView.showContentView();
+        activity.setContentView(multiStateView);
+        idle(16);
+    }
+
+    @Test
+    public void trimMemory_releasesHiddenInflatedViews() {
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        multiStateView.showEmptyView();
+        multiStateView.showErrorView();
+        View error = multiStateView.getView(MultiStateView.VIEW_STATE_ERROR);
+
+        activity.getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertNull(loading.getParent());
+        assertSame(multiStateView, error.getParent());
+        assertSame(multiStateView, emptyView.getParent());
+        assertEquals(1, trimmedViewCount);
+
+        multiStateView.showLoadingView();
+        View reinflated = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        assertNotNull(reinflated);
+        assertNotSame(loading, reinflated);
+        assertEquals(View.VISIBLE, reinflated.getVisibility());
+    }
+
+    @Test
+    public void trimMemory_belowLevel_keepsViews() {
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        multiStateView.showContentView();
+
+        activity.getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertSame(multiStateView, loading.getParent());
+
+        multiStateView.setTrimMemoryLevel(0);
+        activity.getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertSame(multiStateView, loading.getParent());
+        assertEquals(0, trimmedViewCount);
+    }
+
+    @Test
+    public void trimMemory_clearsPool() {
+        StateViewPool pool = new StateViewPool();
+        multiStateView.setStateViewPool(pool);
+        pool.release(android.R.layout.simple_list_item_1, new View(activity));
+
+        activity.getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertNull(pool.acquire(android.R.layout.simple_list_item_1, activity));
+    }
+
+    @Test
+    public void idleTimeout_releasesAfterTimeout() {
+        multiStateView.setStateViewIdleTimeout(1000);
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        multiStateView.showContentView();
+
+        idle(999);
+        assertSame(multiStateView, loading.getParent());
+
+        idle(1);
+        assertNull(loading.getParent());
+        assertEquals(1, trimmedViewCount);
+    }
+
+    @Test
+    public void idleTimeout_keepsPrewarmedViewUntilItsOwnTimeout() throws InterruptedException {
+        final View[] prewarmed = new View[1];
+        multiStateView.setStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+                if (viewState == MultiStateView.VIEW_STATE_ERROR) {
+                    prewarmed[0] = view;
+                }
+            }
+        });
+        multiStateView.setStateViewIdleTimeout(1000);
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        multiStateView.showContentView();
+        idle(500);
+
+        // 重新attach后在主线程空闲时预先inflate错误视图，同时开始下一次释放检查
+        activity.setContentView(new View(activity));
+        multiStateView.setPrewarmStates(MultiStateView.VIEW_STATE_ERROR);
+        activity.setContentView(multiStateView);
+        long attachedTime = SystemClock.uptimeMillis();
+        for (int i = 0; i < 200 && prewarmed[0] == null; i++) {
+            Thread.sleep(10);
+            idle(1);
+        }
+        View error = prewarmed[0];
+        assertNotNull(error);
+        assertEquals(View.GONE, error.getVisibility());
+
+        idle(attachedTime + 1000 - SystemClock.uptimeMillis());
+        assertNull(loading.getParent());
+        assertSame(multiStateView, error.getParent());
+        assertEquals(1, trimmedViewCount);
+
+        idle(1000);
+        assertNull(error.getParent());
+        assertEquals(2, trimmedViewCount);
+    }
+
+    @Test
+    public void detached_ignoresTrimMemory() {
+        multiStateView.showLoadingView();
+        View loading = multiStateView.getView(MultiStateView.VIEW_STATE_LOADING);
+        multiStateView.showContentView();
+        activity.setContentView(new View(activity));
+
+        activity.getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertSame(multiStateView, loading.getParent());
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+}
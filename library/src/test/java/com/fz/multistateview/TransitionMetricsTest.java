@@ -0,0 +1,109 @@
+package com.fz.multistateview;
+
+import android.app.Activity;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 切换统计在动画结束（没有动画时为第二帧）后回调一次，关闭统计后不再回调
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TransitionMetricsTest {
+    private MultiStateView multiStateView;
+    private final List<String> reports = new ArrayList<>();
+    private long animationDurationNanos;
+    private long inflateTimeNanos;
+    private int layoutPassCount;
+    private final MultiStateView.OnTransitionMetricsListener listener = new MultiStateView.OnTransitionMetricsListener() {
+        @Override
+        public void onTransitionMetrics(@NonNull TransitionMetrics metrics) {
+            // 回调结束后metrics会被复用，只记录需要的值
+            reports.add(metrics.getFromState() + "->" + metrics.getToState());
+            animationDurationNanos = metrics.getAnimationDurationNanos();
+            inflateTimeNanos = metrics.getInflateTimeNanos();
+            layoutPassCount = metrics.getLayoutPassCount();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        multiStateView = new MultiStateView(activity, new View(activity));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_2);
+        multiStateView.setTransitionDuration(250);
+        multiStateView.showContentView();
+        activity.setContentView(multiStateView);
+        idle(100);
+    }
+
+    @Test
+    public void withoutAnimation_reportedAfterFrames() {
+        multiStateView.setOnTransitionMetricsListener(listener);
+        multiStateView.showLoadingView();
+        assertTrue(reports.isEmpty());
+
+        idle(100);
+        assertEquals(1, reports.size());
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT + "->" + MultiStateView.VIEW_STATE_LOADING, reports.get(0));
+        assertTrue(inflateTimeNanos > 0);
+        assertTrue(layoutPassCount > 0);
+        assertEquals(0, animationDurationNanos);
+    }
+
+    @Test
+    public void withAnimation_reportedAfterAnimationEnds() {
+        multiStateView.setStateTransition(new CrossFadeTransition());
+        multiStateView.setOnTransitionMetricsListener(listener);
+        multiStateView.showLoadingView();
+        idle(100);
+        assertTrue(reports.isEmpty());
+
+        idle(300);
+        assertEquals(1, reports.size());
+        assertTrue(animationDurationNanos > 0);
+    }
+
+    @Test
+    public void newTransition_reportsPreviousImmediately() {
+        multiStateView.setOnTransitionMetricsListener(listener);
+        multiStateView.showLoadingView();
+        multiStateView.showErrorView();
+        assertEquals(1, reports.size());
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT + "->" + MultiStateView.VIEW_STATE_LOADING, reports.get(0));
+
+        idle(100);
+        assertEquals(2, reports.size());
+        assertEquals(MultiStateView.VIEW_STATE_LOADING + "->" + MultiStateView.VIEW_STATE_ERROR, reports.get(1));
+    }
+
+    @Test
+    public void listenerRemoved_stopsReporting() {
+        multiStateView.setOnTransitionMetricsListener(listener);
+        multiStateView.showLoadingView();
+        multiStateView.setOnTransitionMetricsListener(null);
+        idle(100);
+        multiStateView.showErrorView();
+        idle(100);
+        assertTrue(reports.isEmpty());
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,39 @@
+package com.fz.multistateview.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+
+/**
+ * 生成MultiStateView的baseline profile。
+ * 需要在已root的设备或userdebug模拟器上执行，将输出结果中com/fz/multistateview开头的规则
+ * 更新到library/src/main/baseline-prof.txt，随AAR一起发布
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collectBaselineProfile(DemoApp.PACKAGE_NAME,
+                Collections.singletonList("com.fz.multistateview"),
+                new Function1<MacrobenchmarkScope, Unit>() {
+                    @Override
+                    public Unit invoke(MacrobenchmarkScope scope) {
+                        DemoApp.startAndWaitForContent(scope);
+                        DemoApp.showErrorAndRetry(scope);
+                        return Unit.INSTANCE;
+                    }
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package com.fz.multistateview.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * demo应用的包名及界面操作
+ */
+final class DemoApp {
+    static final String PACKAGE_NAME = "com.fz.multistatusview.demo";
+    /**
+     * 与demo中strings.xml的文案一致
+     */
+    private static final String TEXT_SHOW_ERROR = "显示错误视图";
+    private static final String TEXT_RETRY = "重试";
+    private static final long TIMEOUT = 5_000L;
+
+    private DemoApp() {
+    }
+
+    /**
+     * 冷启动并等待加载完成显示内容视图
+     */
+    static void startAndWaitForContent(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        waitForContent(scope.getDevice());
+    }
+
+    /**
+     * 内容 → 错误 → 重试 → 加载 → 内容
+     */
+    static void showErrorAndRetry(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        findObject(device, TEXT_SHOW_ERROR).click();
+        findObject(device, TEXT_RETRY).click();
+        waitForContent(device);
+    }
+
+    private static void waitForContent(UiDevice device) {
+        findObject(device, TEXT_SHOW_ERROR);
+    }
+
+    private static UiObject2 findObject(UiDevice device, String text) {
+        UiObject2 object = device.wait(Until.findObject(By.text(text)), TIMEOUT);
+        if (object == null) {
+            throw new IllegalStateException("View not found: " + text);
+        }
+        return object;
+    }
+}
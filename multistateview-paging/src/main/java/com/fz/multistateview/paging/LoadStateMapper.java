@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.paging;
+
+import androidx.annotation.NonNull;
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.LoadState;
+
+import com.fz.multistateview.MultiStateView;
+
+/**
+ * 将Paging 3的{@link CombinedLoadStates}转换为{@link MultiStateView}的状态。
+ * 只根据刷新状态决定，已有数据时始终为内容视图，加载更多（append、prepend）的加载中、错误不覆盖已显示的数据
+ */
+public final class LoadStateMapper {
+
+    private LoadStateMapper() {
+    }
+
+    /**
+     * @param states    当前的加载状态
+     * @param itemCount 列表当前的数据条数
+     * @return 需要切换到的状态，{@link MultiStateView#VIEW_STATE_UNKNOWN}表示不需要切换
+     */
+    public static int map(@NonNull CombinedLoadStates states, int itemCount) {
+        if (itemCount > 0) {
+            return MultiStateView.VIEW_STATE_CONTENT;
+        }
+        LoadState refresh = states.getRefresh();
+        if (refresh instanceof LoadState.Loading) {
+            return MultiStateView.VIEW_STATE_LOADING;
+        }
+        if (refresh instanceof LoadState.Error) {
+            return MultiStateView.VIEW_STATE_ERROR;
+        }
+        if (states.getAppend().getEndOfPaginationReached()) {
+            // 刷新完成且没有更多数据
+            return MultiStateView.VIEW_STATE_EMPTY;
+        }
+        // 尚未开始加载，保持当前状态
+        return MultiStateView.VIEW_STATE_UNKNOWN;
+    }
+}
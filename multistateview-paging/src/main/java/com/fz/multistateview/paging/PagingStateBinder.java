@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.paging;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.PagingDataAdapter;
+
+import com.fz.multistateview.MultiStateView;
+
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+
+/**
+ * 根据{@link PagingDataAdapter}的加载状态切换{@link MultiStateView}：
+ * 首次加载中显示加载中视图，加载失败显示错误视图，没有数据显示空视图，有数据显示内容视图。
+ * 加载状态变化频繁，相同的状态只切换一次，状态稳定{@link #DEFAULT_DEBOUNCE_MILLIS}后才切换。
+ * 需要在页面销毁时（如Fragment的onDestroyView）调用{@link #unbind()}
+ */
+public final class PagingStateBinder {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+    private final PagingDataAdapter<?, ?> mAdapter;
+    private final StateDebouncer mDebouncer;
+    private final Function1<CombinedLoadStates, Unit> mLoadStateListener = new Function1<CombinedLoadStates, Unit>() {
+        @Override
+        public Unit invoke(CombinedLoadStates states) {
+            mDebouncer.submit(LoadStateMapper.map(states, mAdapter.getItemCount()));
+            return Unit.INSTANCE;
+        }
+    };
+
+    private PagingStateBinder(@NonNull PagingDataAdapter<?, ?> adapter, @NonNull final MultiStateView multiStateView) {
+        mAdapter = adapter;
+        mDebouncer = new StateDebouncer(new StateDebouncer.Scheduler() {
+            @Override
+            public void postDelayed(@NonNull Runnable runnable, long delayMillis) {
+                multiStateView.postDelayed(runnable, delayMillis);
+            }
+
+            @Override
+            public void removeCallbacks(@NonNull Runnable runnable) {
+                multiStateView.removeCallbacks(runnable);
+            }
+        }, new StateDebouncer.Target() {
+            @Override
+            public int getViewState() {
+                return multiStateView.getViewState();
+            }
+
+            @Override
+            public void setViewState(int state) {
+                multiStateView.setViewState(state);
+            }
+        }, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * 开始根据adapter的加载状态切换multiStateView的状态
+     *
+     * @param adapter        列表adapter
+     * @param multiStateView 状态视图
+     */
+    @MainThread
+    @NonNull
+    public static PagingStateBinder bind(@NonNull PagingDataAdapter<?, ?> adapter, @NonNull MultiStateView multiStateView) {
+        PagingStateBinder binder = new PagingStateBinder(adapter, multiStateView);
+        adapter.addLoadStateListener(binder.mLoadStateListener);
+        return binder;
+    }
+
+    /**
+     * 设置状态稳定多长时间后才切换，0表示在下一次消息循环中切换
+     *
+     * @param debounceMillis 时间（毫秒）
+     */
+    @NonNull
+    public PagingStateBinder setDebounceMillis(long debounceMillis) {
+        mDebouncer.setDebounceMillis(debounceMillis);
+        return this;
+    }
+
+    /**
+     * 停止监听加载状态，未执行的切换不再执行
+     */
+    @MainThread
+    public void unbind() {
+        mAdapter.removeLoadStateListener(mLoadStateListener);
+        mDebouncer.cancel();
+    }
+}
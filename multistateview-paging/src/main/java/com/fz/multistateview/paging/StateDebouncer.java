@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.paging;
+
+import androidx.annotation.NonNull;
+
+import com.fz.multistateview.MultiStateView;
+
+/**
+ * 合并频繁的状态变化：相同的状态不重复提交，状态稳定{@link #setDebounceMillis(long)}后才切换，
+ * 切换前回到当前状态则取消切换
+ */
+final class StateDebouncer {
+    interface Scheduler {
+        void postDelayed(@NonNull Runnable runnable, long delayMillis);
+
+        void removeCallbacks(@NonNull Runnable runnable);
+    }
+
+    interface Target {
+        int getViewState();
+
+        void setViewState(int state);
+    }
+
+    private final Scheduler mScheduler;
+    private final Target mTarget;
+    private long mDebounceMillis;
+    private int mPendingState = MultiStateView.VIEW_STATE_UNKNOWN;
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatch();
+        }
+    };
+
+    StateDebouncer(@NonNull Scheduler scheduler, @NonNull Target target, long debounceMillis) {
+        mScheduler = scheduler;
+        mTarget = target;
+        mDebounceMillis = debounceMillis;
+    }
+
+    void setDebounceMillis(long debounceMillis) {
+        mDebounceMillis = debounceMillis;
+    }
+
+    /**
+     * 提交新的状态
+     *
+     * @param state {@link MultiStateView#VIEW_STATE_UNKNOWN}表示不需要切换，直接忽略
+     */
+    void submit(int state) {
+        if (state == MultiStateView.VIEW_STATE_UNKNOWN || state == mPendingState) {
+            return;
+        }
+        mScheduler.removeCallbacks(mDispatchRunnable);
+        if (state == mTarget.getViewState()) {
+            mPendingState = MultiStateView.VIEW_STATE_UNKNOWN;
+            return;
+        }
+        mPendingState = state;
+        mScheduler.postDelayed(mDispatchRunnable, mDebounceMillis);
+    }
+
+    void cancel() {
+        mScheduler.removeCallbacks(mDispatchRunnable);
+        mPendingState = MultiStateView.VIEW_STATE_UNKNOWN;
+    }
+
+    private void dispatch() {
+        int state = mPendingState;
+        mPendingState = MultiStateView.VIEW_STATE_UNKNOWN;
+        if (state != MultiStateView.VIEW_STATE_UNKNOWN && state != mTarget.getViewState()) {
+            mTarget.setViewState(state);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.fz.multistateview.paging;
+
+import androidx.paging.CombinedLoadStates;
+import androidx.paging.LoadState;
+import androidx.paging.LoadStates;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link LoadStateMapper}状态转换
+ */
+public class LoadStateMapperTest {
+    private static final LoadState LOADING = LoadState.Loading.INSTANCE;
+    private static final LoadState IDLE = new LoadState.NotLoading(false);
+    private static final LoadState END = new LoadState.NotLoading(true);
+    private static final LoadState ERROR = new LoadState.Error(new IOException());
+
+    @Test
+    public void refreshWithoutItems_coversContent() {
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, LoadStateMapper.map(states(LOADING, IDLE, IDLE), 0));
+        assertEquals(MultiStateView.VIEW_STATE_ERROR, LoadStateMapper.map(states(ERROR, IDLE, IDLE), 0));
+        assertEquals(MultiStateView.VIEW_STATE_EMPTY, LoadStateMapper.map(states(IDLE, END, END), 0));
+    }
+
+    @Test
+    public void notStarted_keepsCurrentState() {
+        assertEquals(MultiStateView.VIEW_STATE_UNKNOWN, LoadStateMapper.map(states(IDLE, IDLE, IDLE), 0));
+    }
+
+    @Test
+    public void withItems_alwaysContent() {
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, LoadStateMapper.map(states(LOADING, IDLE, IDLE), 20));
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, LoadStateMapper.map(states(ERROR, IDLE, IDLE), 20));
+    }
+
+    @Test
+    public void appendAndPrepend_ignored() {
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, LoadStateMapper.map(states(IDLE, LOADING, LOADING), 20));
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, LoadStateMapper.map(states(IDLE, ERROR, ERROR), 20));
+        assertEquals(MultiStateView.VIEW_STATE_UNKNOWN, LoadStateMapper.map(states(IDLE, IDLE, ERROR), 0));
+    }
+
+    static CombinedLoadStates states(LoadState refresh, LoadState prepend, LoadState append) {
+        LoadStates source = new LoadStates(refresh, prepend, append);
+        return new CombinedLoadStates(refresh, prepend, append, source, null);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fz.multistateview.paging;
+
+import androidx.annotation.NonNull;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 频繁的加载状态只在真正变化时切换一次
+ */
+public class StateDebouncerTest {
+    private final FakeScheduler scheduler = new FakeScheduler();
+    private final List<Integer> transitions = new ArrayList<>();
+    private int viewState = MultiStateView.VIEW_STATE_CONTENT;
+    private StateDebouncer debouncer;
+
+    @Before
+    public void setUp() {
+        debouncer = new StateDebouncer(scheduler, new StateDebouncer.Target() {
+            @Override
+            public int getViewState() {
+                return viewState;
+            }
+
+            @Override
+            public void setViewState(int state) {
+                viewState = state;
+                transitions.add(state);
+            }
+        }, 50);
+    }
+
+    @Test
+    public void repeatedEmissions_singleTransition() {
+        for (int i = 0; i < 10; i++) {
+            debouncer.submit(MultiStateView.VIEW_STATE_LOADING);
+            scheduler.advance(10);
+        }
+        scheduler.advance(50);
+        debouncer.submit(MultiStateView.VIEW_STATE_LOADING);
+        scheduler.advance(100);
+        assertEquals(1, transitions.size());
+        assertEquals(MultiStateView.VIEW_STATE_LOADING, viewState);
+    }
+
+    @Test
+    public void quickLoad_neverShowsLoading() {
+        debouncer.submit(MultiStateView.VIEW_STATE_LOADING);
+        scheduler.advance(20);
+        debouncer.submit(MultiStateView.VIEW_STATE_CONTENT);
+        scheduler.advance(100);
+        assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    public void lastStableStateWins() {
+        viewState = MultiStateView.VIEW_STATE_LOADING;
+        debouncer.submit(MultiStateView.VIEW_STATE_ERROR);
+        scheduler.advance(20);
+        debouncer.submit(MultiStateView.VIEW_STATE_EMPTY);
+        scheduler.advance(49);
+        assertTrue(transitions.isEmpty());
+        scheduler.advance(1);
+        assertEquals(1, transitions.size());
+        assertEquals(MultiStateView.VIEW_STATE_EMPTY, viewState);
+    }
+
+    @Test
+    public void unknown_ignored() {
+        debouncer.submit(MultiStateView.VIEW_STATE_UNKNOWN);
+        assertEquals(0, scheduler.tasks.size());
+    }
+
+    @Test
+    public void cancel_dropsPendingTransition() {
+        debouncer.submit(MultiStateView.VIEW_STATE_ERROR);
+        debouncer.cancel();
+        scheduler.advance(100);
+        assertTrue(transitions.isEmpty());
+    }
+
+    private static class FakeScheduler implements StateDebouncer.Scheduler {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<Long> times = new ArrayList<>();
+        long now;
+
+        @Override
+        public void postDelayed(@NonNull Runnable runnable, long delayMillis) {
+            tasks.add(runnable);
+            times.add(now + delayMillis);
+        }
+
+        @Override
+        public void removeCallbacks(@NonNull Runnable runnable) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                if (tasks.get(i) == runnable) {
+                    tasks.remove(i);
+                    times.remove(i);
+                }
+            }
+        }
+
+        void advance(long millis) {
+            now += millis;
+            for (int i = 0; i < tasks.size(); ) {
+                if (times.get(i) <= now) {
+                    Runnable task = tasks.remove(i);
+                    times.remove(i);
+                    task.run();
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.reactive;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.arch.core.util.Function;
+import androidx.lifecycle.FlowLiveDataConversions;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.Transformations;
+
+import com.fz.multistateview.MultiStateView;
+
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.flow.Flow;
+
+/**
+ * {@link MultiStateView}与LiveData、Flow之间的转换（RxJava见{@link MultiStateRx}）：
+ * 将状态作为数据流观察，或根据界面数据流切换状态。
+ * 根据数据流切换状态时只在生命周期不低于{@link androidx.lifecycle.Lifecycle.State#STARTED}时收集数据，
+ * 相同的状态不重复切换，同一帧内的多次变化只切换到最后的状态
+ */
+public final class MultiStateReactive {
+
+    private MultiStateReactive() {
+    }
+
+    /**
+     * 以LiveData观察状态变化，相同的状态不重复通知
+     */
+    @MainThread
+    @NonNull
+    public static LiveData<Integer> asLiveData(@NonNull MultiStateView view) {
+        return new ViewStateLiveData(view);
+    }
+
+    /**
+     * 以Flow观察状态变化，收集速度慢时只保留最新的状态
+     */
+    @NonNull
+    public static Flow<Integer> asFlow(@NonNull MultiStateView view) {
+        return FlowLiveDataConversions.asFlow(asLiveData(view));
+    }
+
+    /**
+     * 根据LiveData切换状态，生命周期销毁时自动停止
+     *
+     * @param owner  生命周期，如Fragment的{@code getViewLifecycleOwner()}
+     * @param source 界面数据
+     * @param mapper 将界面数据转换为状态
+     * @param view   状态视图
+     */
+    @MainThread
+    public static <T> void bind(@NonNull LifecycleOwner owner, @NonNull LiveData<T> source,
+                                @NonNull final ViewStateMapper<? super T> mapper, @NonNull final MultiStateView view) {
+        LiveData<Integer> states = Transformations.map(source, new Function<T, Integer>() {
+            @Override
+            public Integer apply(T input) {
+                return mapper.toViewState(input);
+            }
+        });
+        states.observe(owner, new Observer<Integer>() {
+            @Override
+            public void onChanged(Integer state) {
+                if (state == null) {
+                    return;
+                }
+                // 状态可能已通过重试、断网等其他途径改变，与视图的实际状态比较，而不是上一次的数据
+                if (state != view.getViewState() || view.hasPendingViewState()) {
+                    // 同一帧内的多次变化只切换一次
+                    view.postViewState(state);
+                }
+            }
+        });
+    }
+
+    /**
+     * 根据Flow切换状态，生命周期低于STARTED时立即取消收集，恢复后重新收集。
+     * 冷流会重新执行，建议使用StateFlow
+     *
+     * @param owner  生命周期，如Fragment的{@code getViewLifecycleOwner()}
+     * @param source 界面数据
+     * @param mapper 将界面数据转换为状态
+     * @param view   状态视图
+     */
+    @MainThread
+    public static <T> void bind(@NonNull LifecycleOwner owner, @NonNull Flow<? extends T> source,
+                                @NonNull ViewStateMapper<? super T> mapper, @NonNull MultiStateView view) {
+        LiveData<T> liveData = FlowLiveDataConversions.asLiveData(source, EmptyCoroutineContext.INSTANCE, 0L);
+        bind(owner, liveData, mapper, view);
+    }
+}
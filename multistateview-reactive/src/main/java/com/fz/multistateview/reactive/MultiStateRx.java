@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.reactive;
+
+import android.os.Looper;
+import android.view.View;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.LiveDataReactiveStreams;
+
+import com.fz.multistateview.MultiStateView;
+
+import io.reactivex.rxjava3.core.BackpressureStrategy;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import io.reactivex.rxjava3.functions.Cancellable;
+
+/**
+ * {@link MultiStateView}与RxJava3之间的转换，行为与{@link MultiStateReactive}相同。
+ * 本模块不传递RxJava依赖，使用此类时需要自行引入{@code io.reactivex.rxjava3:rxjava}；
+ * 与{@link MultiStateReactive}分开，未引入RxJava时编译、调用其他方法不受影响
+ */
+public final class MultiStateRx {
+
+    private MultiStateRx() {
+    }
+
+    /**
+     * 以Observable观察状态变化，订阅时发送当前状态，相同的状态不重复发送。需要在主线程订阅
+     */
+    @NonNull
+    public static Observable<Integer> asObservable(@NonNull final MultiStateView view) {
+        return Observable.create(new ObservableOnSubscribe<Integer>() {
+            @Override
+            public void subscribe(final ObservableEmitter<Integer> emitter) {
+                final MultiStateView.StateListener listener = new MultiStateView.StateListener() {
+                    @Override
+                    public void onStateChanged(int viewState) {
+                        emitter.onNext(viewState);
+                    }
+
+                    @Override
+                    public void onStateInflated(int viewState, @NonNull View inflatedView) {
+                    }
+                };
+                view.addStateListener(listener);
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        if (Looper.myLooper() == Looper.getMainLooper()) {
+                            view.removeStateListener(listener);
+                        } else {
+                            view.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    view.removeStateListener(listener);
+                                }
+                            });
+                        }
+                    }
+                });
+                emitter.onNext(view.getViewState());
+            }
+        }).distinctUntilChanged();
+    }
+
+    /**
+     * 根据Observable切换状态，生命周期低于STARTED时取消订阅，恢复后重新订阅。
+     * 数据流不能发送错误，需要先转换为错误状态对应的数据（如onErrorReturn）
+     *
+     * @param owner  生命周期，如Fragment的{@code getViewLifecycleOwner()}
+     * @param source 界面数据
+     * @param mapper 将界面数据转换为状态
+     * @param view   状态视图
+     */
+    @MainThread
+    public static <T> void bind(@NonNull LifecycleOwner owner, @NonNull Observable<T> source,
+                                @NonNull ViewStateMapper<? super T> mapper, @NonNull MultiStateView view) {
+        LiveData<T> liveData = LiveDataReactiveStreams.fromPublisher(source.toFlowable(BackpressureStrategy.LATEST));
+        MultiStateReactive.bind(owner, liveData, mapper, view);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.reactive;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+
+import com.fz.multistateview.MultiStateView;
+
+/**
+ * {@link MultiStateView}的状态，有活跃的观察者时才监听状态变化，相同的状态不重复通知
+ */
+final class ViewStateLiveData extends LiveData<Integer> implements MultiStateView.StateListener {
+    private final MultiStateView mView;
+
+    ViewStateLiveData(@NonNull MultiStateView view) {
+        mView = view;
+    }
+
+    @Override
+    protected void onActive() {
+        mView.addStateListener(this);
+        onStateChanged(mView.getViewState());
+    }
+
+    @Override
+    protected void onInactive() {
+        mView.removeStateListener(this);
+    }
+
+    @Override
+    public void onStateChanged(int viewState) {
+        Integer value = getValue();
+        if (value == null || value != viewState) {
+            setValue(viewState);
+        }
+    }
+
+    @Override
+    public void onStateInflated(int viewState, @NonNull View view) {
+    }
+}
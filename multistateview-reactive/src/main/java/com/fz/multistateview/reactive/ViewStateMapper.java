@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) Globalegrow E-Commerce Co. , Ltd. 2007-2018.
+ * All rights reserved.
+ * This software is the confidential and proprietary information
+ * of Globalegrow E-Commerce Co. , Ltd. ("Confidential Information").
+ * You shall not disclose such Confidential Information and shall
+ * use it only in accordance with the terms of the license agreement
+ * you entered into with Globalegrow.
+ */
+
+
+package com.fz.multistateview.reactive;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 将界面数据转换为{@link com.fz.multistateview.MultiStateView}的状态
+ *
+ * @param <T> 界面数据类型
+ */
+public interface ViewStateMapper<T> {
+    /**
+     * @param value 界面数据
+     * @return 对应的状态，如{@link com.fz.multistateview.MultiStateView#VIEW_STATE_LOADING}
+     */
+    int toViewState(@Nullable T value);
+}
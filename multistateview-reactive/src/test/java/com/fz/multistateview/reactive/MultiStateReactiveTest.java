@@ -0,0 +1,182 @@
+package com.fz.multistateview.reactive;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import com.fz.multistateview.MultiStateView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.observers.TestObserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据流驱动状态切换时，同一帧只切换一次，生命周期停止时不切换
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MultiStateReactiveTest {
+    private static final ViewStateMapper<String> MAPPER = new ViewStateMapper<String>() {
+        @Override
+        public int toViewState(@Nullable String value) {
+            if (value == null) {
+                return MultiStateView.VIEW_STATE_LOADING;
+            }
+            return value.isEmpty() ? MultiStateView.VIEW_STATE_EMPTY : MultiStateView.VIEW_STATE_CONTENT;
+        }
+    };
+    private final List<Integer> changes = new ArrayList<>();
+    private TestLifecycleOwner owner;
+    private MultiStateView multiStateView;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        owner = new TestLifecycleOwner();
+        owner.registry.setCurrentState(Lifecycle.State.RESUMED);
+        multiStateView = new MultiStateView(context, new View(context));
+        multiStateView.setLoadingViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setEmptyViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.setErrorViewResId(android.R.layout.simple_list_item_1);
+        multiStateView.showContentView();
+        multiStateView.addStateListener(new MultiStateView.StateListener() {
+            @Override
+            public void onStateChanged(int viewState) {
+                changes.add(viewState);
+            }
+
+            @Override
+            public void onStateInflated(int viewState, @NonNull View view) {
+            }
+        });
+    }
+
+    @Test
+    public void fastUpstream_oneTransitionPerFrame() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        MultiStateReactive.bind(owner, source, MAPPER, multiStateView);
+        for (int i = 0; i < 100; i++) {
+            source.setValue(null);
+            source.setValue("");
+        }
+        idleFrame();
+        assertEquals(Arrays.asList(MultiStateView.VIEW_STATE_EMPTY), changes);
+    }
+
+    @Test
+    public void belowStarted_noTransitions() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        MultiStateReactive.bind(owner, source, MAPPER, multiStateView);
+        owner.registry.setCurrentState(Lifecycle.State.CREATED);
+        source.setValue(null);
+        source.setValue("");
+        idleFrame();
+        assertEquals(0, changes.size());
+
+        owner.registry.setCurrentState(Lifecycle.State.STARTED);
+        idleFrame();
+        assertEquals(Arrays.asList(MultiStateView.VIEW_STATE_EMPTY), changes);
+    }
+
+    @Test
+    public void sameUpstreamState_restoresStateChangedElsewhere() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        MultiStateReactive.bind(owner, source, MAPPER, multiStateView);
+        source.setValue("");
+        idleFrame();
+
+        // 例如点击重试直接显示加载中视图，之后数据仍为空
+        multiStateView.showLoadingView();
+        source.setValue("");
+        idleFrame();
+        assertEquals(MultiStateView.VIEW_STATE_EMPTY, multiStateView.getViewState());
+        assertEquals(Arrays.asList(MultiStateView.VIEW_STATE_EMPTY, MultiStateView.VIEW_STATE_LOADING,
+                MultiStateView.VIEW_STATE_EMPTY), changes);
+    }
+
+    @Test
+    public void currentUpstreamState_cancelsPendingState() {
+        multiStateView.setLoadingShowDelay(500);
+        MutableLiveData<String> source = new MutableLiveData<>();
+        MultiStateReactive.bind(owner, source, MAPPER, multiStateView);
+        source.setValue(null);
+        idleFrame();
+        assertTrue(multiStateView.hasPendingViewState());
+
+        // 视图仍为内容状态，但延迟显示的加载中视图需要取消
+        source.setValue("data");
+        ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+        assertFalse(multiStateView.hasPendingViewState());
+        assertEquals(MultiStateView.VIEW_STATE_CONTENT, multiStateView.getViewState());
+        assertEquals(0, changes.size());
+    }
+
+    @Test
+    public void sameState_notPostedAgain() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        MultiStateReactive.bind(owner, source, MAPPER, multiStateView);
+        source.setValue("data");
+        assertFalse(multiStateView.hasPendingViewState());
+    }
+
+    @Test
+    public void asLiveData_distinctStates() {
+        final List<Integer> states = new ArrayList<>();
+        Observer<Integer> observer = new Observer<Integer>() {
+            @Override
+            public void onChanged(Integer state) {
+                states.add(state);
+            }
+        };
+        MultiStateReactive.asLiveData(multiStateView).observeForever(observer);
+        multiStateView.showErrorView();
+        multiStateView.showErrorView();
+        multiStateView.showLoadingView();
+        assertEquals(Arrays.asList(MultiStateView.VIEW_STATE_CONTENT, MultiStateView.VIEW_STATE_ERROR,
+                MultiStateView.VIEW_STATE_LOADING), states);
+    }
+
+    @Test
+    public void asObservable_emitsCurrentAndChanges() {
+        TestObserver<Integer> observer = MultiStateRx.asObservable(multiStateView).test();
+        multiStateView.showErrorView();
+        multiStateView.showErrorView();
+        observer.dispose();
+        multiStateView.showLoadingView();
+        observer.assertValues(MultiStateView.VIEW_STATE_CONTENT, MultiStateView.VIEW_STATE_ERROR);
+    }
+
+    private static void idleFrame() {
+        ShadowLooper.idleMainLooper(20, TimeUnit.MILLISECONDS);
+    }
+
+    private static class TestLifecycleOwner implements LifecycleOwner {
+        final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+}